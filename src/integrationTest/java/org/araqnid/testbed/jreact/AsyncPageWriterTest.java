@@ -0,0 +1,250 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+public class AsyncPageWriterTest {
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncPageWriterTest.class);
+	private static final int ROWS = 5000;
+	private static final PageShell SHELL = new PageShell("Large list", ImmutableList.of("/style.css"),
+			ImmutableList.of("/react.js"));
+	private final JSModuleContainer container = new JSModuleContainer("test");
+	private final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+	private final Server server = new Server();
+	private final CountDownLatch renderGate = new CountDownLatch(1);
+	private String propsJson;
+
+	@Before
+	public void startServer() throws Exception {
+		ImmutableList.Builder<Object> items = ImmutableList.builder();
+		for (int i = 0; i < ROWS; i++) {
+			items.add(ImmutableMap.of("id", i, "name", "item " + i, "value", "value of item " + i));
+		}
+		propsJson = new ObjectMapper().writeValueAsString(ImmutableMap.of("items", items.build()));
+		container.require("jsx!LargeList");
+
+		ServerConnector connector = new ServerConnector(server);
+		server.addConnector(connector);
+		ServletContextHandler context = new ServletContextHandler();
+		context.addServlet(new ServletHolder(new BufferedServlet()), "/buffered");
+		addAsyncServlet(context, new AsyncServlet(false, false, false), "/async");
+		addAsyncServlet(context, new AsyncServlet(true, false, false), "/failing");
+		addAsyncServlet(context, new AsyncServlet(false, true, false), "/early");
+		addAsyncServlet(context, new AsyncServlet(true, true, false), "/early-failing");
+		addAsyncServlet(context, new AsyncServlet(false, true, true), "/early-gated");
+		ServletHolder stalledHolder = new ServletHolder(new StalledServlet());
+		stalledHolder.setAsyncSupported(true);
+		context.addServlet(stalledHolder, "/stalled");
+		server.setHandler(context);
+		server.start();
+	}
+
+	private static void addAsyncServlet(ServletContextHandler context, HttpServlet servlet, String path) {
+		ServletHolder holder = new ServletHolder(servlet);
+		holder.setAsyncSupported(true);
+		context.addServlet(holder, path);
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.stop();
+		renderExecutor.shutdownNow();
+	}
+
+	@Test
+	public void async_page_matches_buffered_page() throws Exception {
+		Fetched async = fetch("/async");
+		assertThat(async.status, equalTo(200));
+		assertThat(async.body, equalTo(fetch("/buffered").body));
+	}
+
+	@Test
+	public void failed_render_responds_with_error_status() throws Exception {
+		Fetched failing = fetch("/failing");
+		assertThat(failing.status, equalTo(500));
+		assertThat(failing.body, not(containsString(SHELL.head())));
+	}
+
+	@Test
+	public void early_head_is_sent_before_render_completes() throws Exception {
+		HttpURLConnection connection = open("/early-gated");
+		assertThat(connection.getResponseCode(), equalTo(200));
+		try (InputStream input = connection.getInputStream()) {
+			byte[] head = new byte[SHELL.head().length()];
+			ByteStreams.readFully(input, head);
+			assertThat(new String(head, StandardCharsets.UTF_8), equalTo(SHELL.head()));
+			assertThat(renderGate.getCount(), equalTo(1L));
+			renderGate.countDown();
+			String rest = new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8);
+			assertThat(SHELL.head() + rest, equalTo(fetch("/buffered").body));
+		}
+	}
+
+	@Test
+	public void early_page_matches_buffered_page() throws Exception {
+		Fetched early = fetch("/early");
+		assertThat(early.status, equalTo(200));
+		assertThat(early.body, equalTo(fetch("/buffered").body));
+	}
+
+	@Test
+	public void render_failing_after_early_head_is_reported_in_page() throws Exception {
+		Fetched failing = fetch("/early-failing");
+		assertThat(failing.status, equalTo(200));
+		assertThat(failing.body, startsWith(SHELL.head()));
+		assertThat(failing.body, endsWith("<p>This page could not be rendered.</p>\n</div>\n</body>\n</html>\n"));
+	}
+
+	@Test
+	public void reports_time_to_first_byte() throws Exception {
+		fetch("/async");
+		fetch("/early");
+
+		Fetched held = fetch("/async");
+		Fetched early = fetch("/early");
+		LOG.info("{} rows, head held for render: first byte {}ms total {}ms", ROWS, held.firstByteMillis,
+				held.totalMillis);
+		LOG.info("{} rows, head sent early: first byte {}ms total {}ms", ROWS, early.firstByteMillis,
+				early.totalMillis);
+	}
+
+	@Test
+	public void stalled_render_responds_when_request_times_out() throws Exception {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		Fetched stalled = fetch("/stalled");
+		assertThat(stalled.status, equalTo(503));
+		assertThat(stalled.body, containsString("This page could not be rendered."));
+		assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS), lessThan(5000L));
+	}
+
+	private String renderLargeList() throws Exception {
+		JSObject react = (JSObject) container.require("react");
+		JSObject json = (JSObject) react.eval("JSON");
+		Object props = ((JSObject) json.getMember("parse")).call(json, propsJson);
+		Object element = ((JSObject) react.getMember("createElement")).call(react, container.require("jsx!LargeList"),
+				props);
+		return (String) ((JSObject) react.getMember("renderToStaticMarkup")).call(react, element);
+	}
+
+	private HttpURLConnection open(String path) throws IOException {
+		int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+		return (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+	}
+
+	private Fetched fetch(String path) throws IOException {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		HttpURLConnection connection = open(path);
+		Fetched fetched = new Fetched();
+		fetched.status = connection.getResponseCode();
+		fetched.firstByteMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		try (InputStream input = fetched.status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			fetched.body = input == null ? "" : new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8);
+		}
+		fetched.totalMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		return fetched;
+	}
+
+	private static final class Fetched {
+		int status;
+		String body;
+		long firstByteMillis;
+		long totalMillis;
+	}
+
+	private final class BufferedServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			String markup;
+			try {
+				markup = renderLargeList();
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+			resp.setContentType("text/html; charset=utf-8");
+			resp.getOutputStream().write((SHELL.head() + markup + SHELL.tail()).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private final class AsyncServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+		private final boolean failing;
+		private final boolean earlyHead;
+		private final boolean gated;
+
+		AsyncServlet(boolean failing, boolean earlyHead, boolean gated) {
+			this.failing = failing;
+			this.earlyHead = earlyHead;
+			this.gated = gated;
+		}
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			resp.setContentType("text/html; charset=utf-8");
+			AsyncContext asyncContext = req.startAsync();
+			AsyncPageWriter writer = new AsyncPageWriter(asyncContext);
+			writer.start();
+			if (earlyHead) writer.headReady(SHELL.head());
+			renderExecutor.execute(() -> {
+				try {
+					if (gated) renderGate.await();
+					if (failing) throw new IllegalStateException("render failed");
+					writer.markupReady(SHELL, renderLargeList());
+				} catch (Exception e) {
+					writer.renderFailed(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e);
+				}
+			});
+		}
+	}
+
+	private static final class StalledServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			resp.setContentType("text/html; charset=utf-8");
+			AsyncContext asyncContext = req.startAsync();
+			asyncContext.setTimeout(200);
+			new AsyncPageWriter(asyncContext).start();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ServiceManager;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RenderEndpointTest {
+	private static final Logger LOG = LoggerFactory.getLogger(RenderEndpointTest.class);
+	private final Injector injector = Guice.createInjector(new AppConfigModule(ImmutableMap.<String, String> builder()
+			.put("PORT", "0").put("MODULE_ROOT", "test").put("DEV_MODE", "true").put("RENDER_POOL_SIZE", "2")
+			.put("RENDER_THREADS", "2").put("RENDER_QUEUE_CAPACITY", "4").put("RENDER_TIMEOUT_MS", "500")
+			.put("PRELOAD_MODULES", "jsx!Component,jsx!Runaway").put("WARMUP_FIXTURES", "warmup.json").build()));
+	private final ServiceManager serviceManager = injector.getInstance(ServiceManager.class);
+
+	@Before
+	public void startServer() throws Exception {
+		serviceManager.startAsync().awaitHealthy(60, TimeUnit.SECONDS);
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		serviceManager.stopAsync().awaitStopped(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void renders_page_with_query_parameters_as_props() throws Exception {
+		Fetched fetched = fetch("/page/Component?name=Foo");
+		assertThat(fetched.status, equalTo(200));
+		assertThat(fetched.body, containsString(">Foo</span>"));
+		assertThat(fetched.body, containsString("</html>"));
+	}
+
+	@Test
+	public void reports_ready_once_warmed_up() throws Exception {
+		assertThat(fetch("/_status/ready").status, equalTo(200));
+		JsonNode status = new ObjectMapper().readTree(fetch("/_status/render").body);
+		assertThat(status.get("warmupRounds").asInt(), greaterThan(0));
+	}
+
+	@Test
+	public void render_metrics_are_exposed() throws Exception {
+		fetch("/page/Component?name=Foo");
+		Fetched metrics = fetch("/metrics");
+		assertThat(metrics.status, equalTo(200));
+		assertThat(metrics.body, containsString("jreact_render_seconds_count{module=\"jsx!Component\"} 1\n"));
+	}
+
+	@Test
+	public void page_links_client_bundle_of_its_modules() throws Exception {
+		String fingerprint = injector.getInstance(ClientBundler.class).prebuilt("jsx!Component").get().fingerprint();
+		assertThat(fetch("/page/Component").body, containsString("<script src=\"/bundle/Component." + fingerprint
+				+ ".js\"></script>"));
+		Fetched bundle = fetch("/bundle/Component." + fingerprint + ".js");
+		assertThat(bundle.status, equalTo(200));
+		assertThat(bundle.body, containsString("register('jsx!Component', function(define) {"));
+		assertThat(fetch("/bundle/Component.js").status, equalTo(200));
+		assertThat(fetch("/bundle/Component.000000000000.js").status, equalTo(404));
+		assertThat(fetch("/bundle/NoSuchComponent.js").status, equalTo(404));
+	}
+
+	@Test
+	public void bundle_is_built_by_page_render_not_by_bundle_request() throws Exception {
+		assertThat(fetch("/bundle/Runaway.js").status, equalTo(404));
+		assertThat(fetch("/page/Runaway").status, equalTo(200));
+		assertThat(fetch("/bundle/Runaway.js").status, equalTo(200));
+	}
+
+	@Test
+	public void unknown_page_is_not_found() throws Exception {
+		assertThat(fetch("/page/NoSuchComponent").status, equalTo(404));
+		assertThat(fetch("/page/../web/index").status, equalTo(404));
+	}
+
+	@Test
+	public void excess_load_is_shed_with_service_unavailable() throws Exception {
+		fetch("/page/Component");
+		int requests = 40;
+		ExecutorService clients = Executors.newFixedThreadPool(requests);
+		try {
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			ImmutableList.Builder<Future<Fetched>> futures = ImmutableList.builder();
+			for (int i = 0; i < requests; i++) {
+				futures.add(clients.submit(() -> fetch("/page/Component?name=client")));
+			}
+			int ok = 0;
+			int shed = 0;
+			for (Future<Fetched> future : futures.build()) {
+				int status = future.get().status;
+				assertThat(status, anyOf(equalTo(200), equalTo(503)));
+				if (status == 200) ++ok;
+				else ++shed;
+			}
+			JsonNode status = new ObjectMapper().readTree(fetch("/_status/render").body);
+			LOG.info("{} concurrent requests in {}: {} rendered, {} shed; status {}", requests, stopwatch, ok, shed,
+					status);
+			assertThat(status.get("rejectedRenders").asInt(), equalTo(shed));
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	@Test
+	public void runaway_render_is_stopped_and_its_container_replaced() throws Exception {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		Fetched runaway = fetch("/page/Runaway?spin=true");
+		LOG.info("Runaway render answered in {}", stopwatch);
+		assertThat(runaway.status, equalTo(503));
+		assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS), lessThan(2000L));
+		assertThat(fetch("/page/Runaway").body, containsString(">finished</div>"));
+		JsonNode status = new ObjectMapper().readTree(fetch("/_status/render").body);
+		assertThat(status.get("containersQuarantined").asInt(), equalTo(1));
+		assertThat(status.get("retiredRenderThreads").asInt(), equalTo(1));
+		assertThat(status.get("recentTimeouts").get(0).get("module").asText(), equalTo("jsx!Runaway"));
+		assertThat(status.get("recentTimeouts").get(0).get("props").asText(), equalTo("{spin=true}"));
+	}
+
+	private Fetched fetch(String path) throws IOException {
+		int port = ((ServerConnector) injector.getInstance(Server.class).getConnectors()[0]).getLocalPort();
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+				.openConnection();
+		Fetched fetched = new Fetched();
+		fetched.status = connection.getResponseCode();
+		try (InputStream input = fetched.status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			fetched.body = input == null ? "" : new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8);
+		}
+		return fetched;
+	}
+
+	private static final class Fetched {
+		int status;
+		String body;
+	}
+}
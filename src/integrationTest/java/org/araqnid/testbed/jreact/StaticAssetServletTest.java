@@ -0,0 +1,180 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import com.google.common.reflect.ClassPath;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class StaticAssetServletTest {
+	private final Server server = new Server();
+	private byte[] largeCss;
+	private String largeCssETag;
+	private AssetManifest manifest;
+
+	@Before
+	public void startServer() throws Exception {
+		ClassLoader classLoader = getClass().getClassLoader();
+		EmbeddedResource root = new EmbeddedResource(classLoader, "testweb", ClassPath.from(classLoader));
+		largeCss = Resources.toByteArray(Resources.getResource("testweb/large.css"));
+		largeCssETag = ((EmbeddedResource) root.addPath("/large.css")).strongETag();
+		ServerConnector connector = new ServerConnector(server);
+		server.addConnector(connector);
+		ServletContextHandler context = new ServletContextHandler();
+		manifest = new AssetManifest(root);
+		context.addServlet(new ServletHolder(new StaticAssetServlet(root, manifest)), "/*");
+		server.setHandler(context);
+		server.start();
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.stop();
+	}
+
+	@Test
+	public void serves_content_with_length_type_and_strong_etag() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of());
+		assertThat(fetched.status, equalTo(200));
+		assertThat(fetched.body, equalTo(largeCss));
+		assertThat(fetched.header("Content-Length"), equalTo(String.valueOf(largeCss.length)));
+		assertThat(fetched.header("Content-Type"), equalTo("text/css"));
+		assertThat(fetched.header("ETag"), equalTo(largeCssETag));
+		assertThat(fetched.header("Content-Encoding"), nullValue());
+	}
+
+	@Test
+	public void serves_precompressed_variant_to_gzip_clients() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of("Accept-Encoding", "gzip, deflate"));
+		assertThat(fetched.status, equalTo(200));
+		assertThat(fetched.header("Content-Encoding"), equalTo("gzip"));
+		assertThat(fetched.body.length, lessThan(largeCss.length));
+		try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(fetched.body))) {
+			assertThat(ByteStreams.toByteArray(input), equalTo(largeCss));
+		}
+	}
+
+	@Test
+	public void precompressed_variant_has_its_own_etag() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of("Accept-Encoding", "gzip"));
+		String gzipETag = largeCssETag.substring(0, largeCssETag.length() - 1) + "--gzip\"";
+		assertThat(fetched.header("ETag"), equalTo(gzipETag));
+		assertThat(fetch("/large.css", ImmutableMap.of("Accept-Encoding", "gzip", "If-None-Match", gzipETag)).status,
+				equalTo(304));
+		assertThat(fetch("/large.css", ImmutableMap.of("If-None-Match", gzipETag)).status, equalTo(304));
+		Fetched ranged = fetch("/large.css", ImmutableMap.of("Range", "bytes=10-19", "If-Range", gzipETag));
+		assertThat(ranged.status, equalTo(206));
+		assertThat(ranged.header("ETag"), equalTo(largeCssETag));
+	}
+
+	@Test
+	public void matching_if_none_match_is_not_modified() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of("If-None-Match", "\"other\", " + largeCssETag));
+		assertThat(fetched.status, equalTo(304));
+		assertThat(fetched.body.length, equalTo(0));
+	}
+
+	@Test
+	public void serves_requested_range() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of("Range", "bytes=10-19"));
+		assertThat(fetched.status, equalTo(206));
+		assertThat(fetched.header("Content-Range"), equalTo("bytes 10-19/" + largeCss.length));
+		assertThat(new String(fetched.body, "UTF-8"), equalTo(new String(largeCss, 10, 10, "UTF-8")));
+	}
+
+	@Test
+	public void serves_suffix_range() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of("Range", "bytes=-5"));
+		assertThat(fetched.status, equalTo(206));
+		assertThat(fetched.header("Content-Range"), equalTo("bytes " + (largeCss.length - 5) + "-"
+				+ (largeCss.length - 1) + "/" + largeCss.length));
+	}
+
+	@Test
+	public void unsatisfiable_range_is_rejected() throws Exception {
+		Fetched fetched = fetch("/large.css", ImmutableMap.of("Range", "bytes=100000-"));
+		assertThat(fetched.status, equalTo(416));
+		assertThat(fetched.header("Content-Range"), equalTo("bytes */" + largeCss.length));
+	}
+
+	@Test
+	public void range_positions_too_large_for_a_long_are_past_the_end() throws Exception {
+		String huge = "99999999999999999999";
+		assertThat(fetch("/large.css", ImmutableMap.of("Range", "bytes=" + huge + "-")).status, equalTo(416));
+		Fetched toEnd = fetch("/large.css", ImmutableMap.of("Range", "bytes=0-" + huge));
+		assertThat(toEnd.status, equalTo(206));
+		assertThat(toEnd.body, equalTo(largeCss));
+		Fetched suffix = fetch("/large.css", ImmutableMap.of("Range", "bytes=-" + huge));
+		assertThat(suffix.status, equalTo(206));
+		assertThat(suffix.body, equalTo(largeCss));
+	}
+
+	@Test
+	public void directory_serves_index_and_missing_file_is_not_found() throws Exception {
+		assertThat(fetch("/scripts/app.js", ImmutableMap.of()).status, equalTo(200));
+		assertThat(fetch("/missing.js", ImmutableMap.of()).status, equalTo(404));
+		assertThat(fetch("/scripts/", ImmutableMap.of()).status, equalTo(404));
+	}
+
+	@Test
+	public void fingerprinted_url_is_immutable() throws Exception {
+		Fetched fetched = fetch(manifest.url("large.css"), ImmutableMap.of());
+		assertThat(fetched.status, equalTo(200));
+		assertThat(fetched.body, equalTo(largeCss));
+		assertThat(fetched.header("Cache-Control"), equalTo("public, max-age=31536000, immutable"));
+	}
+
+	@Test
+	public void plain_url_must_be_revalidated() throws Exception {
+		assertThat(fetch("/large.css", ImmutableMap.of()).header("Cache-Control"), equalTo("no-cache"));
+	}
+
+	@Test
+	public void stale_fingerprint_is_not_found() throws Exception {
+		assertThat(fetch("/large.000000000000.css", ImmutableMap.of()).status, equalTo(404));
+	}
+
+	private Fetched fetch(String path, Map<String, String> headers) throws IOException {
+		int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+				.openConnection();
+		headers.forEach(connection::setRequestProperty);
+		Fetched fetched = new Fetched();
+		fetched.status = connection.getResponseCode();
+		fetched.connection = connection;
+		try (InputStream input = fetched.status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			fetched.body = input == null ? new byte[0] : ByteStreams.toByteArray(input);
+		}
+		return fetched;
+	}
+
+	private static final class Fetched {
+		int status;
+		byte[] body;
+		HttpURLConnection connection;
+
+		String header(String name) {
+			return connection.getHeaderField(name);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+
+import jdk.nashorn.api.scripting.JSObject;
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import jdk.nashorn.api.scripting.URLReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AdaptorBenchmark {
+	private final JSModuleContainer container = new JSModuleContainer("test");
+	private JSObject react;
+	private JSObject createElement;
+	private JSModuleContainer.React reactAdaptor;
+	private JSObject formatter;
+	private JSObject format;
+	private Formatter formatterAdaptor;
+	private MethodHandle formatHandle;
+
+	@Setup
+	public void createAdaptors() throws Exception {
+		container.require("react", JSModuleContainer.React.class);
+		// getInterface only accepts objects from its own engine, so load React into a private one for all cases
+		ScriptEngine engine = new NashornScriptEngineFactory().getScriptEngine();
+		engine.eval("var global = this");
+		try (Reader reader = new URLReader(ReactResources.reactScript(), StandardCharsets.UTF_8)) {
+			engine.eval(reader);
+		}
+		react = (JSObject) engine.get("React");
+		createElement = (JSObject) react.getMember("createElement");
+		reactAdaptor = ((Invocable) engine).getInterface(react, JSModuleContainer.React.class);
+		formatter = (JSObject) engine.eval("({ format: function(value) { return '<' + value + '>' } })");
+		format = (JSObject) formatter.getMember("format");
+		formatterAdaptor = ((Invocable) engine).getInterface(formatter, Formatter.class);
+		formatHandle = MethodHandles.insertArguments(MethodHandles.publicLookup().findVirtual(JSObject.class, "call",
+				MethodType.methodType(Object.class, Object.class, Object[].class)), 0, format, formatter)
+				.asCollector(Object[].class, 1).asType(MethodType.methodType(Object.class, String.class));
+	}
+
+	@Benchmark
+	public Object trivial_call_via_interface_adaptor() {
+		return formatterAdaptor.format("x");
+	}
+
+	@Benchmark
+	public Object trivial_call_via_member_lookup() {
+		return ((JSObject) formatter.getMember("format")).call(formatter, "x");
+	}
+
+	@Benchmark
+	public Object trivial_call_via_bound_function() {
+		return format.call(formatter, "x");
+	}
+
+	@Benchmark
+	public Object trivial_call_via_method_handle() throws Throwable {
+		return formatHandle.invokeExact("x");
+	}
+
+	@Benchmark
+	public Object create_element_via_interface_adaptor() {
+		return reactAdaptor.createElement("div");
+	}
+
+	@Benchmark
+	public Object create_element_via_member_lookup() {
+		return ((JSObject) react.getMember("createElement")).call(react, "div");
+	}
+
+	@Benchmark
+	public Object create_element_via_bound_function() {
+		return createElement.call(react, "div");
+	}
+
+	@Benchmark
+	public Object require_adaptor_from_cache() throws Exception {
+		return container.require("react", JSModuleContainer.React.class);
+	}
+
+	public interface Formatter {
+		String format(String value);
+	}
+}
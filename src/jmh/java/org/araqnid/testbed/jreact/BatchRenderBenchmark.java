@@ -0,0 +1,58 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BatchRenderBenchmark {
+	@Param({ "100", "10000" })
+	public int items;
+
+	private final JSModuleContainer container = new JSModuleContainer("test");
+	private List<Object> propsList;
+
+	@Setup
+	public void buildProps() throws Exception {
+		ImmutableList.Builder<Object> builder = ImmutableList.builder();
+		for (int i = 0; i < items; i++) {
+			builder.add(ImmutableMap.of("name", "Item " + i));
+		}
+		propsList = builder.build();
+		container.require("jsx!Component");
+	}
+
+	@Benchmark
+	public List<String> render_individually() throws Exception {
+		List<String> markup = new ArrayList<>(propsList.size());
+		for (Object props : propsList) {
+			markup.add(container.renderToStaticMarkup("jsx!Component", props));
+		}
+		return markup;
+	}
+
+	@Benchmark
+	public List<String> render_as_batch() throws Exception {
+		return container.renderAllToStaticMarkup("jsx!Component", propsList);
+	}
+}
@@ -0,0 +1,62 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ComponentCacheBenchmark {
+	@Param({ "10", "100" })
+	public int tiles;
+
+	private final JSModuleContainer uncached = new JSModuleContainer("test");
+	private final JSModuleContainer cached = JSModuleContainer.builder("test")
+			.componentCache(new ComponentCache(64 * 1024 * 1024)).build();
+	private List<Map<String, Object>> products;
+	private int visitor;
+
+	@Setup
+	public void buildProducts() throws Exception {
+		ImmutableList.Builder<Map<String, Object>> builder = ImmutableList.builder();
+		for (int i = 0; i < tiles; i++) {
+			builder.add(ImmutableMap.of("id", i, "title", "Product " + i, "badge", i % 3 == 0 ? "New" : "Sale"));
+		}
+		products = builder.build();
+		uncached.require("jsx!TileGrid");
+		cached.require("jsx!TileGrid");
+	}
+
+	@Benchmark
+	public String render_uncached() throws Exception {
+		return uncached.renderToStaticMarkup("jsx!TileGrid", props());
+	}
+
+	@Benchmark
+	public String render_with_cached_tiles() throws Exception {
+		return cached.renderToStaticMarkup("jsx!TileGrid", props());
+	}
+
+	private Map<String, Object> props() {
+		return ImmutableMap.of("user", "visitor " + visitor++, "products", products);
+	}
+}
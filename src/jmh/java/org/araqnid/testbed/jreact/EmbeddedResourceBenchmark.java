@@ -0,0 +1,42 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.reflect.ClassPath;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EmbeddedResourceBenchmark {
+	private EmbeddedResource webRoot;
+
+	@Setup
+	public void scanClasspath() throws Exception {
+		ClassLoader classLoader = getClass().getClassLoader();
+		webRoot = new EmbeddedResource(classLoader, "web", ClassPath.from(classLoader));
+	}
+
+	@Benchmark
+	public String[] list() {
+		return webRoot.list();
+	}
+
+	@Benchmark
+	public boolean is_directory() throws Exception {
+		return webRoot.addPath("/index.html").isDirectory();
+	}
+}
@@ -0,0 +1,60 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ModuleLoadingBenchmark {
+	private JSModuleContainer template;
+	private JSModuleContainer container;
+
+	@Setup(Level.Trial)
+	public void warmTemplate() throws Exception {
+		template = new JSModuleContainer("test");
+		template.require("react");
+		template.require("singleDependency");
+		template.require("jsx!Component");
+	}
+
+	@Setup(Level.Invocation)
+	public void spawnContainer() throws Exception {
+		container = template.spawn();
+		container.require("react");
+	}
+
+	@Benchmark
+	public Object construct_container_and_load_react() throws Exception {
+		return new JSModuleContainer("test").require("react");
+	}
+
+	@Benchmark
+	public Object construct_shared_engine_container_and_load_react() throws Exception {
+		return JSModuleContainer.builder("test").sharedEngine(true).build().require("react");
+	}
+
+	@Benchmark
+	public Object require_plain_module() throws Exception {
+		return container.require("singleDependency");
+	}
+
+	@Benchmark
+	public Object require_jsx_module() throws Exception {
+		return container.require("jsx!Component");
+	}
+}
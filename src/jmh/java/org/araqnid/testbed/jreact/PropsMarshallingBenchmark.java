@@ -0,0 +1,56 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PropsMarshallingBenchmark {
+	@Param({ "10", "10000" })
+	public int rows;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final JSModuleContainer container = new JSModuleContainer("test");
+	private Map<String, Object> props;
+	private JSObject json;
+	private PropsBridge propsBridge;
+
+	@Setup
+	public void buildProps() throws Exception {
+		props = ImmutableMap.of("items", RenderBenchmark.items(rows));
+		JSObject react = (JSObject) container.require("react");
+		json = (JSObject) react.eval("JSON");
+		propsBridge = container.propsBridge();
+	}
+
+	@Benchmark
+	public Object props_bridge() throws Exception {
+		return propsBridge.props(props);
+	}
+
+	@Benchmark
+	public Object json_round_trip() throws Exception {
+		return ((JSObject) json.getMember("parse")).call(json, objectMapper.writeValueAsString(props));
+	}
+}
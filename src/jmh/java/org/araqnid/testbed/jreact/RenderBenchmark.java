@@ -0,0 +1,65 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+	@Param({ "small", "large" })
+	public String tree;
+
+	private final JSModuleContainer container = new JSModuleContainer("test");
+	private String moduleName;
+	private Map<String, Object> props;
+
+	@Setup
+	public void loadModules() throws Exception {
+		if (tree.equals("small")) {
+			moduleName = "jsx!Component";
+			props = ImmutableMap.of("name", "benchmark");
+		}
+		else {
+			moduleName = "jsx!LargeList";
+			props = ImmutableMap.of("items", items(1000));
+		}
+		container.require(moduleName);
+	}
+
+	@Benchmark
+	public String render_to_string() throws Exception {
+		return container.renderToString(moduleName, props);
+	}
+
+	@Benchmark
+	public String render_to_static_markup() throws Exception {
+		return container.renderToStaticMarkup(moduleName, props);
+	}
+
+	static ImmutableList<Object> items(int count) {
+		ImmutableList.Builder<Object> items = ImmutableList.builder();
+		for (int i = 0; i < count; i++) {
+			items.add(ImmutableMap.of("id", i, "name", "item " + i, "value", "value of item " + i));
+		}
+		return items.build();
+	}
+}
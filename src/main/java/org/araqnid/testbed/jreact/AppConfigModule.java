@@ -34,6 +34,43 @@ public class AppConfigModule extends AbstractModule {
 	protected void configure() {
 		bindConstant().annotatedWith(JettyModule.Port.class).to(getenv("PORT").orElse("61030"));
 		install(new JettyModule());
+		bindConstant().annotatedWith(RenderingModule.ModuleRoot.class).to(getenv("MODULE_ROOT").orElse("modules"));
+		bindConstant().annotatedWith(RenderingModule.ModuleSourceDirectory.class).to(
+				getenv("MODULE_SOURCE_DIR").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.CodeCacheDirectory.class).to(
+				getenv("JS_CODE_CACHE_DIR").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.JSXCacheDirectory.class).to(
+				getenv("JSX_CACHE_DIR").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.DevMode.class).to(getenv("DEV_MODE").orElse("false"));
+		bindConstant().annotatedWith(RenderingModule.PoolSize.class).to(
+				getenv("RENDER_POOL_SIZE").orElse(String.valueOf(Runtime.getRuntime().availableProcessors())));
+		bindConstant().annotatedWith(RenderingModule.PreloadModules.class).to(getenv("PRELOAD_MODULES").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.AcquireTimeout.class).to(
+				getenv("RENDER_ACQUIRE_TIMEOUT_MS").orElse("5000"));
+		bindConstant().annotatedWith(RenderingModule.RenderCacheBytes.class).to(
+				getenv("RENDER_CACHE_BYTES").orElse(String.valueOf(64 * 1024 * 1024)));
+		bindConstant().annotatedWith(RenderingModule.RenderCacheTtl.class).to(
+				getenv("RENDER_CACHE_TTL_SECONDS").orElse("0"));
+		bindConstant().annotatedWith(RenderingModule.ComponentCacheBytes.class).to(
+				getenv("COMPONENT_CACHE_BYTES").orElse(String.valueOf(32 * 1024 * 1024)));
+		bindConstant().annotatedWith(RenderingModule.RenderThreads.class).to(
+				getenv("RENDER_THREADS").orElse(String.valueOf(Runtime.getRuntime().availableProcessors())));
+		bindConstant().annotatedWith(RenderingModule.RenderQueueCapacity.class).to(
+				getenv("RENDER_QUEUE_CAPACITY").orElse("100"));
+		bindConstant().annotatedWith(RenderingModule.RenderTimeout.class).to(
+				getenv("RENDER_TIMEOUT_MS").orElse("2000"));
+		bindConstant().annotatedWith(RenderingModule.RequestTimeout.class).to(
+				getenv("REQUEST_TIMEOUT_MS").orElse("10000"));
+		bindConstant().annotatedWith(RenderingModule.FlushHeadEarly.class).to(
+				getenv("FLUSH_HEAD_EARLY").orElse("false"));
+		bindConstant().annotatedWith(RenderingModule.ConsoleRateLimit.class).to(
+				getenv("JS_CONSOLE_RATE_LIMIT").orElse("100"));
+		bindConstant().annotatedWith(RenderingModule.PageStylesheets.class).to(getenv("PAGE_STYLESHEETS").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.PageScripts.class).to(getenv("PAGE_SCRIPTS").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.WarmupFixtures.class).to(getenv("WARMUP_FIXTURES").orElse(""));
+		bindConstant().annotatedWith(RenderingModule.WarmupMaxRounds.class).to(
+				getenv("WARMUP_MAX_ROUNDS").orElse("30"));
+		install(new RenderingModule());
 	}
 
 	@Provides
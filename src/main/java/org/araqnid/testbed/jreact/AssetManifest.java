@@ -0,0 +1,53 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+
+public final class AssetManifest {
+	private static final int FINGERPRINT_LENGTH = 12;
+	private static final Pattern FINGERPRINTED = Pattern.compile("(.*)\\.([0-9a-f]{" + FINGERPRINT_LENGTH
+			+ "})(\\.[^./]+)?");
+	private final Map<String, String> fingerprinted;
+	private final Map<String, String> original;
+
+	public AssetManifest(EmbeddedResource root) {
+		ImmutableMap.Builder<String, String> fingerprinted = ImmutableMap.builder();
+		ImmutableMap.Builder<String, String> original = ImmutableMap.builder();
+		for (Map.Entry<String, HashCode> file : root.fileHashes().entrySet()) {
+			String path = fingerprint(file.getKey(), file.getValue());
+			fingerprinted.put(file.getKey(), path);
+			original.put(path, file.getKey());
+		}
+		this.fingerprinted = fingerprinted.build();
+		this.original = original.build();
+	}
+
+	public String url(String path) {
+		String stripped = path.startsWith("/") ? path.substring(1) : path;
+		String fingerprintedPath = fingerprinted.get(stripped);
+		if (fingerprintedPath == null) throw new IllegalArgumentException("No such asset: " + path);
+		return "/" + fingerprintedPath;
+	}
+
+	public Map<String, String> entries() {
+		return fingerprinted;
+	}
+
+	public Optional<String> resolveFingerprinted(String path) {
+		String stripped = path.startsWith("/") ? path.substring(1) : path;
+		if (!FINGERPRINTED.matcher(stripped).matches()) return Optional.empty();
+		return Optional.ofNullable(original.get(stripped));
+	}
+
+	private static String fingerprint(String path, HashCode hash) {
+		String fingerprint = hash.toString().substring(0, FINGERPRINT_LENGTH);
+		int slash = path.lastIndexOf('/');
+		int dot = path.lastIndexOf('.');
+		if (dot <= slash + 1) return path + "." + fingerprint;
+		return path.substring(0, dot) + "." + fingerprint + path.substring(dot);
+	}
+}
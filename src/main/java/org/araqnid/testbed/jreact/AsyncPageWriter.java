@@ -0,0 +1,164 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AsyncPageWriter implements WriteListener {
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncPageWriter.class);
+	private static final int CHUNK_CHARS = 8192;
+	private static final String FAILED_PAGE = "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n"
+			+ "<title>Render failed</title>\n</head>\n<body>\n<p>This page could not be rendered.</p>\n</body>\n"
+			+ "</html>\n";
+	private static final String FAILED_FRAGMENT = "<p>This page could not be rendered.</p>\n</div>\n</body>\n</html>\n";
+	private final AsyncContext asyncContext;
+	private final ServletOutputStream outputStream;
+	private final Queue<String> pending = new ArrayDeque<>();
+	private int offset;
+	private boolean started;
+	private boolean headSent;
+	private boolean flushNeeded;
+	private boolean finished;
+	private boolean completed;
+
+	public AsyncPageWriter(AsyncContext asyncContext) throws IOException {
+		this.asyncContext = asyncContext;
+		this.outputStream = asyncContext.getResponse().getOutputStream();
+	}
+
+	public void start() {
+		synchronized (this) {
+			started = true;
+		}
+		asyncContext.addListener(new TimeoutListener());
+		outputStream.setWriteListener(this);
+	}
+
+	// sends the shell's head before the render finishes, so the browser can start fetching stylesheets; this commits a
+	// 200, so a render that then fails can only be reported in the page. Without it, nothing is written until the
+	// render's outcome is known, and a failed render gets an error status.
+	public void headReady(String head) {
+		synchronized (this) {
+			if (finished || headSent) return;
+			pending.add(head);
+			headSent = true;
+			flushNeeded = true;
+		}
+		writeAvailable();
+	}
+
+	public void markupReady(PageShell shell, String markup) {
+		synchronized (this) {
+			if (finished) return;
+			if (!headSent) pending.add(shell.head());
+			pending.add(markup);
+			pending.add(shell.tail());
+			finished = true;
+		}
+		writeAvailable();
+	}
+
+	public void renderFailed(int status, Throwable t) {
+		synchronized (this) {
+			if (finished) return;
+			if (headSent) {
+				LOG.error("Render failed after the page head was sent; closing the page with an error", t);
+				pending.add(FAILED_FRAGMENT);
+			}
+			else {
+				LOG.error("Render failed; responding with {}", status, t);
+				((HttpServletResponse) asyncContext.getResponse()).setStatus(status);
+				pending.add(FAILED_PAGE);
+			}
+			finished = true;
+		}
+		writeAvailable();
+	}
+
+	@Override
+	public void onWritePossible() throws IOException {
+		writeAvailable();
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		LOG.warn("Error writing page: {}", t.toString());
+		complete();
+	}
+
+	private void writeAvailable() {
+		try {
+			writePending();
+		} catch (IOException e) {
+			onError(e);
+		}
+	}
+
+	private synchronized void writePending() throws IOException {
+		if (!started) return;
+		while (outputStream.isReady()) {
+			String part = pending.peek();
+			if (part == null) {
+				if (flushNeeded) {
+					flushNeeded = false;
+					outputStream.flush();
+					continue;
+				}
+				if (finished) complete();
+				return;
+			}
+			int end = Math.min(part.length(), offset + CHUNK_CHARS);
+			if (end < part.length() && Character.isHighSurrogate(part.charAt(end - 1))) {
+				--end;
+			}
+			outputStream.write(part.substring(offset, end).getBytes(StandardCharsets.UTF_8));
+			if (end == part.length()) {
+				pending.remove();
+				offset = 0;
+			}
+			else {
+				offset = end;
+			}
+		}
+	}
+
+	private synchronized void complete() {
+		if (completed) return;
+		completed = true;
+		asyncContext.complete();
+	}
+
+	private final class TimeoutListener implements AsyncListener {
+		@Override
+		public void onTimeout(AsyncEvent event) throws IOException {
+			renderFailed(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+					new TimeoutException("Request did not complete within " + asyncContext.getTimeout() + "ms"));
+			// a page that was already being written is cut short rather than left to the container's error handling
+			complete();
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class BundleServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+	private static final Pattern BUNDLE_PATH = Pattern.compile("/(.+?)(?:\\.([0-9a-f]{12}))?\\.js");
+	private final transient ClientBundler bundler;
+	private final transient PageRenderer pageRenderer;
+
+	@Inject
+	public BundleServlet(ClientBundler bundler, PageRenderer pageRenderer) {
+		this.bundler = bundler;
+		this.pageRenderer = pageRenderer;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		Matcher matcher = BUNDLE_PATH.matcher(Optional.ofNullable(req.getPathInfo()).orElse(""));
+		Optional<String> moduleName = matcher.matches() ? pageRenderer.resolve(matcher.group(1)) : Optional.empty();
+		if (!moduleName.isPresent()) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		// bundles are built during warmup or alongside the page render, never on a request thread
+		Optional<ClientBundler.Bundle> prebuilt = bundler.prebuilt(moduleName.get());
+		String fingerprint = matcher.group(2);
+		if (!prebuilt.isPresent() || fingerprint != null && !fingerprint.equals(prebuilt.get().fingerprint())) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		ClientBundler.Bundle bundle = prebuilt.get();
+		resp.setHeader("Cache-Control", fingerprint != null ? "public, max-age=31536000, immutable" : "no-cache");
+		resp.setHeader("ETag", bundle.etag());
+		if (bundle.etag().equals(req.getHeader("If-None-Match"))) {
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		resp.setContentType("application/javascript; charset=utf-8");
+		resp.setContentLength(bundle.content.length);
+		resp.getOutputStream().write(bundle.content);
+	}
+}
@@ -0,0 +1,108 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+
+import javax.script.ScriptException;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+public class ClientBundler {
+	private static final int FINGERPRINT_LENGTH = 12;
+	private static final String PRELUDE = "(function(global) {\n"
+			+ "var registry = {};\n"
+			+ "function register(name, body) {\n"
+			+ "  body(function(dependencies, factory) {\n"
+			+ "    if (typeof dependencies === 'function') { factory = dependencies; dependencies = []; }\n"
+			+ "    registry[name] = { dependencies: dependencies, factory: factory };\n"
+			+ "  });\n"
+			+ "}\n"
+			+ "function resolve(name) {\n"
+			+ "  var module = registry[name];\n"
+			+ "  if (!module) throw new Error('Module not in bundle: ' + name);\n"
+			+ "  if (!('value' in module)) module.value = module.factory.apply(null, module.dependencies.map(resolve));\n"
+			+ "  return module.value;\n"
+			+ "}\n"
+			+ "register('react', function(define) { define([], function() { return global.React; }); });\n";
+	private final JSModuleContainerPool pool;
+	private final ConcurrentMap<String, Bundle> bundles = new ConcurrentHashMap<>();
+
+	public ClientBundler(JSModuleContainerPool pool) {
+		this.pool = pool;
+	}
+
+	// building needs a container, so this belongs on a render or warmup thread; request threads only serve bundles
+	// that are already built
+	public Bundle bundle(String entryModuleName) throws IOException, ScriptException, TimeoutException,
+			InterruptedException {
+		Bundle bundle = bundles.get(entryModuleName);
+		if (bundle != null) return bundle;
+		try (JSModuleContainerPool.Lease lease = pool.acquire()) {
+			return prebuild(lease.container(), entryModuleName);
+		}
+	}
+
+	public Bundle prebuild(JSModuleContainer container, String entryModuleName) throws IOException, ScriptException {
+		Bundle bundle = bundles.get(entryModuleName);
+		if (bundle != null) return bundle;
+		bundle = build(container, entryModuleName);
+		Bundle existing = bundles.putIfAbsent(entryModuleName, bundle);
+		return existing != null ? existing : bundle;
+	}
+
+	public Optional<Bundle> prebuilt(String entryModuleName) {
+		return Optional.ofNullable(bundles.get(entryModuleName));
+	}
+
+	public void invalidateAll() {
+		bundles.clear();
+	}
+
+	public static Bundle build(JSModuleContainer container, String entryModuleName) throws IOException,
+			ScriptException {
+		List<String> moduleNames = container.dependencyOrder(entryModuleName);
+		StringBuilder script = new StringBuilder();
+		if (moduleNames.contains("react")) script.append(container.moduleSource("react")).append("\n;");
+		script.append(PRELUDE);
+		for (String moduleName : moduleNames) {
+			if (moduleName.equals("react")) continue;
+			script.append("register(").append(quote(moduleName)).append(", function(define) {\n")
+					.append(container.moduleSource(moduleName)).append("\n});\n");
+		}
+		script.append("global.jreact = { require: resolve, entry: ").append(quote(entryModuleName)).append(" };\n")
+				.append("})(this);\n");
+		return new Bundle(entryModuleName, moduleNames, script.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String quote(String value) {
+		return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+	}
+
+	public static final class Bundle {
+		public final String entryModuleName;
+		public final List<String> moduleNames;
+		public final byte[] content;
+		public final HashCode hash;
+
+		private Bundle(String entryModuleName, List<String> moduleNames, byte[] content) {
+			this.entryModuleName = entryModuleName;
+			this.moduleNames = moduleNames;
+			this.content = content;
+			this.hash = Hashing.sha1().hashBytes(content);
+		}
+
+		public String fingerprint() {
+			return hash.toString().substring(0, FINGERPRINT_LENGTH);
+		}
+
+		public String etag() {
+			return "\"" + hash + "\"";
+		}
+	}
+}
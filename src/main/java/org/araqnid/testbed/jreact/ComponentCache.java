@@ -0,0 +1,260 @@
+package org.araqnid.testbed.jreact;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.nashorn.api.scripting.JSObject;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+public class ComponentCache {
+	private static final int ENTRY_OVERHEAD_BYTES = 128;
+	static final String PLACEHOLDER_TAG = "jreact-cached";
+	private static final String PLACEHOLDER_OPEN = "<" + PLACEHOLDER_TAG + " data-slot=\"";
+	private static final String PLACEHOLDER_CLOSE = "</" + PLACEHOLDER_TAG + ">";
+	private final Cache<Key, String> cache;
+	private final ThreadLocal<Session> currentSession = new ThreadLocal<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong bypasses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+	private final AtomicLong cachedBytes = new AtomicLong();
+
+	public ComponentCache(long maximumBytes) {
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maximumBytes)
+				.weigher((Key key, String markup) -> weight(markup)).removalListener(this::removed).build();
+	}
+
+	Session begin() {
+		Session session = new Session(currentSession.get());
+		currentSession.set(session);
+		return session;
+	}
+
+	// called from the cacheable component wrappers, which only splice in markup while a static render is in progress
+	public boolean active() {
+		return currentSession.get() != null;
+	}
+
+	public int slot(String moduleName, Object props) {
+		Session session = currentSession.get();
+		if (session == null) return -1;
+		HashCode propsHash = propsHash(props);
+		if (propsHash == null) {
+			bypasses.incrementAndGet();
+			return -1;
+		}
+		Key key = new Key(moduleName, propsHash);
+		String markup = cache.getIfPresent(key);
+		if (markup != null) hits.incrementAndGet();
+		else misses.incrementAndGet();
+		session.slots.add(new Slot(key, markup));
+		return session.slots.size() - 1;
+	}
+
+	public boolean cached(int slot) {
+		return currentSession.get().slots.get(slot).markup != null;
+	}
+
+	public void invalidateModule(String moduleName) {
+		for (Key key : cache.asMap().keySet()) {
+			if (key.moduleName.equals(moduleName) && cache.asMap().remove(key) != null) invalidations.incrementAndGet();
+		}
+	}
+
+	public Stats stats() {
+		return new Stats(hits.get(), misses.get(), bypasses.get(), evictions.get(), invalidations.get(), cache.size(),
+				cachedBytes.get());
+	}
+
+	// props are walked through the JSObject interface, so PropsBridge views hash the same as the plain JS objects and
+	// arrays React builds; null means the props hold something with no stable value, such as a function or an element
+	static HashCode propsHash(Object props) {
+		Hasher hasher = Hashing.sha256().newHasher();
+		return hashValue(props, hasher, new HashSet<>()) ? hasher.hash() : null;
+	}
+
+	private static boolean hashValue(Object value, Hasher hasher, Set<JSObject> enclosing) {
+		if (value == null || ScriptObjectMirror.isUndefined(value)) {
+			hasher.putByte((byte) 'n');
+			return true;
+		}
+		if (value instanceof CharSequence) {
+			hasher.putByte((byte) 's').putString((CharSequence) value, StandardCharsets.UTF_8).putByte((byte) 0);
+			return true;
+		}
+		if (value instanceof Number) {
+			hasher.putByte((byte) 'v').putDouble(((Number) value).doubleValue());
+			return true;
+		}
+		if (value instanceof Boolean) {
+			hasher.putByte((byte) 'b').putBoolean((Boolean) value);
+			return true;
+		}
+		if (!(value instanceof JSObject)) return false;
+		JSObject object = (JSObject) value;
+		if (object.isFunction() || Boolean.TRUE.equals(object.getMember("_isReactElement")) || !enclosing.add(object))
+			return false;
+		try {
+			if (object.isArray()) {
+				hasher.putByte((byte) '[');
+				int length = ((Number) object.getMember("length")).intValue();
+				for (int i = 0; i < length; i++) {
+					if (!hashValue(object.getSlot(i), hasher, enclosing)) return false;
+					hasher.putByte((byte) ',');
+				}
+				hasher.putByte((byte) ']');
+			}
+			else {
+				hasher.putByte((byte) '{');
+				for (String key : Ordering.natural().sortedCopy(object.keySet())) {
+					hasher.putString(key, StandardCharsets.UTF_8).putByte((byte) ':');
+					if (!hashValue(object.getMember(key), hasher, enclosing)) return false;
+				}
+				hasher.putByte((byte) '}');
+			}
+			return true;
+		} finally {
+			enclosing.remove(object);
+		}
+	}
+
+	private void removed(RemovalNotification<Key, String> notification) {
+		cachedBytes.addAndGet(-weight(notification.getValue()));
+		if (notification.wasEvicted()) evictions.incrementAndGet();
+	}
+
+	private static int weight(String markup) {
+		return markup.length() * 2 + ENTRY_OVERHEAD_BYTES;
+	}
+
+	final class Session implements AutoCloseable {
+		private final Session enclosing;
+		private final List<Slot> slots = new ArrayList<>();
+
+		private Session(Session enclosing) {
+			this.enclosing = enclosing;
+		}
+
+		// replace each placeholder with the markup cached for it, and cache the markup rendered inside the others
+		String splice(String markup) {
+			if (slots.isEmpty()) return markup;
+			StringBuilder output = new StringBuilder(markup.length());
+			Deque<int[]> open = new ArrayDeque<>();
+			int pos = 0;
+			while (true) {
+				int nextClose = markup.indexOf(PLACEHOLDER_CLOSE, pos);
+				if (nextClose < 0) break;
+				int nextOpen = markup.indexOf(PLACEHOLDER_OPEN, pos);
+				if (nextOpen >= 0 && nextOpen < nextClose) {
+					output.append(markup, pos, nextOpen);
+					int slotStart = nextOpen + PLACEHOLDER_OPEN.length();
+					int slotEnd = markup.indexOf('"', slotStart);
+					open.push(new int[] { Integer.parseInt(markup.substring(slotStart, slotEnd)), output.length() });
+					pos = markup.indexOf('>', slotEnd) + 1;
+				}
+				else {
+					output.append(markup, pos, nextClose);
+					int[] frame = open.pop();
+					Slot slot = slots.get(frame[0]);
+					if (slot.markup != null) {
+						output.setLength(frame[1]);
+						output.append(slot.markup);
+					}
+					else {
+						String rendered = output.substring(frame[1]);
+						cachedBytes.addAndGet(weight(rendered));
+						cache.put(slot.key, rendered);
+					}
+					pos = nextClose + PLACEHOLDER_CLOSE.length();
+				}
+			}
+			output.append(markup, pos, markup.length());
+			return output.toString();
+		}
+
+		@Override
+		public void close() {
+			if (enclosing != null) currentSession.set(enclosing);
+			else currentSession.remove();
+		}
+	}
+
+	public static final class Stats {
+		public final long hits;
+		public final long misses;
+		public final long bypasses;
+		public final long evictions;
+		public final long invalidations;
+		public final long entries;
+		public final long bytes;
+
+		private Stats(long hits, long misses, long bypasses, long evictions, long invalidations, long entries,
+				long bytes) {
+			this.hits = hits;
+			this.misses = misses;
+			this.bypasses = bypasses;
+			this.evictions = evictions;
+			this.invalidations = invalidations;
+			this.entries = entries;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d misses=%d bypasses=%d evictions=%d invalidations=%d entries=%d bytes=%d",
+					hits, misses, bypasses, evictions, invalidations, entries, bytes);
+		}
+	}
+
+	private static final class Slot {
+		private final Key key;
+		private final String markup;
+
+		Slot(Key key, String markup) {
+			this.key = key;
+			this.markup = markup;
+		}
+	}
+
+	private static final class Key {
+		private final String moduleName;
+		private final HashCode propsHash;
+
+		Key(String moduleName, HashCode propsHash) {
+			this.moduleName = moduleName;
+			this.propsHash = propsHash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			return moduleName.equals(other.moduleName) && propsHash.equals(other.propsHash);
+		}
+
+		@Override
+		public int hashCode() {
+			return moduleName.hashCode() * 31 + propsHash.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return moduleName + "#" + propsHash;
+		}
+	}
+}
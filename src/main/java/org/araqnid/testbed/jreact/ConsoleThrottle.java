@@ -0,0 +1,37 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+
+final class ConsoleThrottle {
+	private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private final int messagesPerSecond;
+	private final Ticker ticker;
+	private long windowStart;
+	private int admitted;
+	private long suppressed;
+
+	ConsoleThrottle(int messagesPerSecond, Ticker ticker) {
+		this.messagesPerSecond = messagesPerSecond;
+		this.ticker = ticker;
+		this.windowStart = ticker.read();
+	}
+
+	// -1 if the message should be dropped, otherwise the number of messages dropped since the last one admitted
+	synchronized long admit() {
+		long now = ticker.read();
+		if (now - windowStart >= WINDOW_NANOS) {
+			windowStart = now;
+			admitted = 0;
+		}
+		if (admitted >= messagesPerSecond) {
+			++suppressed;
+			return -1;
+		}
+		++admitted;
+		long dropped = suppressed;
+		suppressed = 0;
+		return dropped;
+	}
+}
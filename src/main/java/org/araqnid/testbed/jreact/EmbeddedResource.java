@@ -5,26 +5,35 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ReadableByteChannel;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 
+import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.resource.Resource;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.HashCode;
 import com.google.common.reflect.ClassPath;
-import com.google.common.reflect.ClassPath.ResourceInfo;
 
 public class EmbeddedResource extends Resource {
-	private final ClassLoader classLoader;
+	private final ResourceIndex index;
 	private final String path;
-	private final ClassPath classPath;
+	private final String relativePath;
+	private final Optional<ResourceIndex.Entry> entry;
 
-	public EmbeddedResource(ClassLoader classLoader, String path, ClassPath classPath) {
-		this.classLoader = classLoader;
+	public EmbeddedResource(ClassLoader classLoader, String path, ClassPath classPath) throws IOException {
+		this(ResourceIndex.build(classLoader, classPath, path), path, "");
+	}
+
+	private EmbeddedResource(ResourceIndex index, String path, String relativePath) {
+		this.index = index;
 		this.path = path;
-		this.classPath = classPath;
+		this.relativePath = relativePath;
+		this.entry = index.lookup(relativePath);
 	}
 
 	@Override
@@ -34,13 +43,12 @@ public class EmbeddedResource extends Resource {
 
 	@Override
 	public boolean exists() {
-		URL url = classLoader.getResource(path);
-		return url != null;
+		return entry.isPresent() && (entry.get().directory || entry.get().url != null);
 	}
 
 	@Override
 	public boolean isDirectory() {
-		return list().length > 0;
+		return entry.isPresent() && entry.get().directory;
 	}
 
 	@Override
@@ -50,12 +58,40 @@ public class EmbeddedResource extends Resource {
 
 	@Override
 	public long length() {
-		return -1;
+		return entry.isPresent() ? entry.get().length() : -1;
 	}
 
 	@Override
 	public URL getURL() {
-		return classLoader.getResource(path);
+		return entry.isPresent() ? entry.get().url : null;
+	}
+
+	public Optional<HashCode> contentHash() {
+		return entry.isPresent() ? Optional.ofNullable(entry.get().contentHash) : Optional.empty();
+	}
+
+	public Map<String, HashCode> fileHashes() {
+		ImmutableSortedMap.Builder<String, HashCode> hashes = ImmutableSortedMap.naturalOrder();
+		entry.ifPresent(from -> index.visitFiles(from, "", (path, file) -> hashes.put(path, file.contentHash)));
+		return hashes.build();
+	}
+
+	public String strongETag() {
+		return contentHash().map(hash -> "\"" + hash + "\"").orElse(null);
+	}
+
+	public Optional<String> contentType() {
+		return entry.isPresent() ? Optional.ofNullable(entry.get().contentType) : Optional.empty();
+	}
+
+	public Optional<ByteBuffer> content() {
+		return entry.isPresent() && entry.get().content != null ? Optional.of(entry.get().content.duplicate())
+				: Optional.empty();
+	}
+
+	public Optional<ByteBuffer> gzipContent() {
+		return entry.isPresent() && entry.get().gzipContent != null ? Optional.of(entry.get().gzipContent
+				.duplicate()) : Optional.empty();
 	}
 
 	@Override
@@ -70,12 +106,13 @@ public class EmbeddedResource extends Resource {
 
 	@Override
 	public InputStream getInputStream() throws IOException {
-		return classLoader.getResourceAsStream(path);
+		ReadableByteChannel channel = getReadableByteChannel();
+		return channel != null ? Channels.newInputStream(channel) : null;
 	}
 
 	@Override
 	public ReadableByteChannel getReadableByteChannel() throws IOException {
-		return null;
+		return content().map(ByteBufferChannel::new).orElse(null);
 	}
 
 	@Override
@@ -94,30 +131,51 @@ public class EmbeddedResource extends Resource {
 
 	@Override
 	public String[] list() {
-		String prefix = path;
-		if (!prefix.endsWith("/")) {
-			prefix = prefix + "/";
-		}
-		Set<String> matching = new HashSet<>();
-		ImmutableSet<ResourceInfo> resources = classPath.getResources();
-		for (ResourceInfo resource : resources) {
-			String name = resource.getResourceName();
-			if (name.startsWith(prefix)) {
-				String tail = name.substring(prefix.length());
-				Iterable<String> parts = Splitter.on('/').split(tail);
-				matching.add(parts.iterator().next());
-			}
-		}
-		return matching.toArray(new String[matching.size()]);
+		if (!isDirectory()) return null;
+		return entry.get().children.entrySet().stream()
+				.map(child -> child.getValue().directory ? child.getKey() + "/" : child.getKey()).toArray(String[]::new);
 	}
 
 	@Override
 	public Resource addPath(String path) throws IOException, MalformedURLException {
-		return new EmbeddedResource(classLoader, this.path + path, classPath);
+		String canonicalPath = URIUtil.canonicalPath(path);
+		if (canonicalPath == null) throw new MalformedURLException(path);
+		return new EmbeddedResource(index, this.path + canonicalPath, relativePath + "/" + canonicalPath);
 	}
 
 	@Override
 	public String toString() {
 		return "Classpath:/" + path;
 	}
+
+	private static final class ByteBufferChannel implements ReadableByteChannel {
+		private final ByteBuffer buffer;
+		private boolean open = true;
+
+		ByteBufferChannel(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			if (!open) throw new ClosedChannelException();
+			if (!buffer.hasRemaining()) return -1;
+			int count = Math.min(dst.remaining(), buffer.remaining());
+			ByteBuffer slice = buffer.slice();
+			slice.limit(count);
+			dst.put(slice);
+			buffer.position(buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+	}
 }
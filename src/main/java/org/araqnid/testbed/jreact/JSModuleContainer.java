@@ -1,134 +1,489 @@
 package org.araqnid.testbed.jreact;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import javax.script.SimpleScriptContext;
 
 import jdk.nashorn.api.scripting.JSObject;
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import jdk.nashorn.api.scripting.URLReader;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
-import com.google.common.collect.ClassToInstanceMap;
+import com.google.common.base.Ticker;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Collections2;
-import com.google.common.collect.ImmutableClassToInstanceMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.io.CharSource;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Resources;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 
-import static com.google.common.base.Functions.toStringFunction;
 import static com.google.common.base.Verify.verifyNotNull;
 
 public class JSModuleContainer {
 	private static final Pattern JSX_PATTERN = Pattern.compile("jsx!(.+)");
-	private final ScriptEngineManager engineManager = new ScriptEngineManager();
-	private final ScriptEngine nashornEngine = engineManager.getEngineByName("nashorn");
-	private final Map<String, Module> modules = new HashMap<>();
+	private static final String CODE_CACHE_DIRECTORY_PROPERTY = "nashorn.persistent.code.cache";
+	public static final String PRECOMPILED_JSX_PREFIX = "META-INF/jsx/";
+	private static final NashornScriptEngineFactory ENGINE_FACTORY = new NashornScriptEngineFactory();
+	private static final ConcurrentMap<Optional<Path>, SharedEngine> SHARED_ENGINES = new ConcurrentHashMap<>();
+	private final ScriptEngine nashornEngine;
+	private final ConcurrentMap<String, CompiledScript> compiledScripts;
+	private volatile Registry registry = new Registry(ImmutableMap.of());
+	private final Executor loaderExecutor;
+	// module scripts and define callbacks work on module objects shared across the whole container, so they are never
+	// run concurrently, even when the loader executor runs several loads at once
+	private final Object evaluationLock = new Object();
+	private PropsBridge propsBridge;
+	private volatile ReactFunctions reactFunctions;
 	private final String root;
+	private final Optional<Path> sourceDirectory;
+	private final boolean runtimeJsxTransform;
+	private final boolean preferSourceJsx;
+	private final Optional<JSXTransformCache> jsxTransformCache;
+	private final int consoleRateLimit;
+	private final ConcurrentMap<String, ConsoleThrottle> consoleThrottles;
+	private final RenderMetrics metrics;
+	private final Optional<ComponentCache> componentCache;
 
 	public JSModuleContainer(String root) {
-		this.root = root;
+		this(builder(root));
 	}
 
-	public Object require(String moduleName) throws IOException, ScriptException {
-		Module module = modules.get(moduleName);
-		if (module != null) {
-			if (module.state != Module.State.LOADED)
-				throw new IllegalStateException(moduleName + " in state " + module.state);
-		}
-		else {
-			module = load(moduleName);
+	private JSModuleContainer(Builder builder) {
+		this.root = builder.root;
+		this.sourceDirectory = builder.sourceDirectory;
+		this.runtimeJsxTransform = builder.runtimeJsxTransform;
+		this.preferSourceJsx = builder.preferSourceJsx;
+		this.jsxTransformCache = builder.jsxTransformCache;
+		this.loaderExecutor = builder.loaderExecutor;
+		this.consoleRateLimit = builder.consoleRateLimit;
+		SharedEngine engine = builder.sharedEngine ? SHARED_ENGINES.computeIfAbsent(builder.codeCacheDirectory,
+				SharedEngine::new) : new SharedEngine(builder.codeCacheDirectory);
+		this.nashornEngine = engine.nashornEngine;
+		this.compiledScripts = engine.compiledScripts;
+		this.consoleThrottles = new ConcurrentHashMap<>();
+		this.metrics = builder.metrics;
+		this.componentCache = builder.componentCache;
+	}
+
+	private JSModuleContainer(JSModuleContainer template) {
+		this.root = template.root;
+		this.sourceDirectory = template.sourceDirectory;
+		this.runtimeJsxTransform = template.runtimeJsxTransform;
+		this.preferSourceJsx = template.preferSourceJsx;
+		this.jsxTransformCache = template.jsxTransformCache;
+		this.loaderExecutor = template.loaderExecutor;
+		this.nashornEngine = template.nashornEngine;
+		this.compiledScripts = template.compiledScripts;
+		this.consoleRateLimit = template.consoleRateLimit;
+		this.consoleThrottles = template.consoleThrottles;
+		this.metrics = template.metrics;
+		this.componentCache = template.componentCache;
+	}
+
+	public JSModuleContainer spawn() {
+		return new JSModuleContainer(this);
+	}
+
+	public static Builder builder(String root) {
+		return new Builder(root);
+	}
+
+	boolean sharesEngineWith(JSModuleContainer other) {
+		return nashornEngine == other.nashornEngine;
+	}
+
+	int compiledScriptCount() {
+		return compiledScripts.size();
+	}
+
+	private static ScriptEngine createEngine(Optional<Path> codeCacheDirectory) {
+		if (!codeCacheDirectory.isPresent()) return ENGINE_FACTORY.getScriptEngine();
+		// Nashorn only reads the cache location from a system property, at the point the engine's context is created;
+		// entries are keyed on a digest of the script source, so edited scripts simply miss
+		synchronized (JSModuleContainer.class) {
+			String previous = System.setProperty(CODE_CACHE_DIRECTORY_PROPERTY, codeCacheDirectory.get().toString());
+			try {
+				return ENGINE_FACTORY.getScriptEngine("--persistent-code-cache");
+			} finally {
+				if (previous == null) System.clearProperty(CODE_CACHE_DIRECTORY_PROPERTY);
+				else System.setProperty(CODE_CACHE_DIRECTORY_PROPERTY, previous);
+			}
 		}
-		return module.value;
+	}
+
+	public Object require(String moduleName) throws IOException, ScriptException {
+		return awaitLoaded(moduleName).value;
 	}
 
 	public <T> T require(String moduleName, Class<T> targetInterface) throws IOException, ScriptException {
-		Module module = modules.get(moduleName);
-		if (module != null) {
-			if (module.state != Module.State.LOADED)
-				throw new IllegalStateException(moduleName + " in state " + module.state);
-		}
-		else {
-			module = load(moduleName);
-		}
-		if (module.adaptors.containsKey(targetInterface)) return module.adaptors.getInstance(targetInterface);
-		Invocable nashornInvoker = (Invocable) nashornEngine;
-		if (!(module.value instanceof JSObject)) { throw new ClassCastException("Non-object module '" + moduleName
+		Module module = awaitLoaded(moduleName);
+		Object adaptor = module.adaptors.get(targetInterface);
+		if (adaptor == null) adaptor = module.adaptors.computeIfAbsent(targetInterface, key -> adapt(module, key));
+		return targetInterface.cast(adaptor);
+	}
+
+	private Object adapt(Module module, Class<?> targetInterface) {
+		if (!(module.value instanceof JSObject)) { throw new ClassCastException("Non-object module '" + module.name
 				+ "' is not compatible with " + targetInterface); }
-		T adaptor = nashornInvoker.getInterface(module.value, targetInterface);
+		// Nashorn generates a bytecode adaptor class here that calls straight into the script function, which measured
+		// faster than binding the functions through JSObject.call or method handles (see AdaptorBenchmark)
+		Object adaptor = ((Invocable) nashornEngine).getInterface(module.value, targetInterface);
 		if (adaptor == null)
-			throw new ClassCastException("Module '" + moduleName + "' is not compatible with " + targetInterface);
-		module.adaptors = ImmutableClassToInstanceMap.builder().putAll(module.adaptors).put(targetInterface, adaptor)
-				.build();
+			throw new ClassCastException("Module '" + module.name + "' is not compatible with " + targetInterface);
 		return adaptor;
 	}
 
-	private Module load(String moduleName) throws IOException, ScriptException {
+	private Module awaitLoaded(String moduleName) throws IOException, ScriptException {
+		return awaitLoaded(registry, moduleName);
+	}
+
+	private Module awaitLoaded(Registry registry, String moduleName) throws IOException, ScriptException {
+		Module created = new Module(moduleName, registry);
+		Module existing = registry.modules.putIfAbsent(moduleName, created);
+		if (existing == null) {
+			start(created);
+		}
+		try {
+			return Uninterruptibles.getUninterruptibly((existing != null ? existing : created).loaded);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			Throwables.propagateIfInstanceOf(cause, IOException.class);
+			Throwables.propagateIfInstanceOf(cause, ScriptException.class);
+			throw Throwables.propagate(cause);
+		}
+	}
+
+	public synchronized PropsBridge propsBridge() throws IOException, ScriptException {
+		if (propsBridge == null) propsBridge = new PropsBridge((JSObject) require("react"));
+		return propsBridge;
+	}
+
+	public String renderToString(String moduleName, Object props) throws IOException, ScriptException {
+		return render(functions -> functions.renderToString, moduleName, props);
+	}
+
+	public String renderToStaticMarkup(String moduleName, Object props) throws IOException, ScriptException {
+		if (!componentCache.isPresent()) return render(functions -> functions.renderToStaticMarkup, moduleName, props);
+		try (ComponentCache.Session session = componentCache.get().begin()) {
+			return session.splice(render(functions -> functions.renderToStaticMarkup, moduleName, props));
+		}
+	}
+
+	private String render(Function<ReactFunctions, JSObject> renderMethod, String moduleName, Object props)
+			throws IOException, ScriptException {
+		ReactFunctions react = reactFunctions();
+		Object component = require(moduleName);
+		RenderMetrics.Timer timer = metrics.start(RenderMetrics.Operation.RENDER, moduleName);
+		try {
+			Object element = react.createElement.call(react.react, component,
+					props != null ? propsBridge().props(props) : null);
+			String markup = (String) renderMethod.apply(react).call(react.react, element);
+			timer.succeeded();
+			metrics.recordRendered(moduleName, markup.length());
+			return markup;
+		} catch (RuntimeException | Error e) {
+			timer.failed();
+			throw e;
+		}
+	}
+
+	public List<String> renderAllToString(String moduleName, List<?> propsList) throws IOException,
+			ScriptException {
+		return renderAll(false, moduleName, propsList);
+	}
+
+	public List<String> renderAllToStaticMarkup(String moduleName, List<?> propsList) throws IOException,
+			ScriptException {
+		if (!componentCache.isPresent()) return renderAll(true, moduleName, propsList);
+		try (ComponentCache.Session session = componentCache.get().begin()) {
+			List<String> markup = renderAll(true, moduleName, propsList);
+			markup.replaceAll(session::splice);
+			return markup;
+		}
+	}
+
+	private List<String> renderAll(boolean staticMarkup, String moduleName, List<?> propsList) throws IOException,
+			ScriptException {
+		ReactFunctions react = reactFunctions();
+		Object component = require(moduleName);
+		RenderMetrics.Timer timer = metrics.start(RenderMetrics.Operation.BATCH_RENDER, moduleName);
+		try {
+			String[] markup = (String[]) react.renderAll.call(null, react.react, component,
+					propsBridge().propsList(propsList), staticMarkup);
+			timer.succeeded();
+			long bytes = 0;
+			for (String item : markup) {
+				bytes += item.length();
+			}
+			metrics.recordRendered(moduleName, bytes);
+			return Arrays.asList(markup);
+		} catch (RuntimeException | Error e) {
+			timer.failed();
+			throw e;
+		}
+	}
+
+	private Object cacheable(String moduleName, Object value) throws IOException, ScriptException {
+		if (!componentCache.isPresent() || !(value instanceof JSObject)
+				|| !Boolean.TRUE.equals(((JSObject) value).getMember("cacheable"))) return value;
+		ReactFunctions react = reactFunctions();
+		return react.cacheable.call(null, react.react, value, moduleName, componentCache.get());
+	}
+
+	private ReactFunctions reactFunctions() throws IOException, ScriptException {
+		ReactFunctions functions = reactFunctions;
+		if (functions == null) reactFunctions = functions = new ReactFunctions((JSObject) require("react"));
+		return functions;
+	}
+
+	public List<String> dependencyOrder(String entryModuleName) throws IOException, ScriptException {
+		Module entry = awaitLoaded(entryModuleName);
+		Set<String> ordered = new LinkedHashSet<>();
+		addInDependencyOrder(entry.registry, entryModuleName, ordered);
+		return ImmutableList.copyOf(ordered);
+	}
+
+	private static void addInDependencyOrder(Registry registry, String moduleName, Set<String> ordered) {
+		if (ordered.contains(moduleName)) return;
+		for (String dependencyName : registry.modules.get(moduleName).dependencies) {
+			addInDependencyOrder(registry, dependencyName, ordered);
+		}
+		ordered.add(moduleName);
+	}
+
+	public Set<String> reload(Collection<String> changedModuleNames) throws IOException, ScriptException {
+		for (String moduleName : changedModuleNames) {
+			forgetCompiled(moduleName);
+		}
+		Registry current = registry;
+		Set<String> affected = dependents(current, changedModuleNames);
+		if (affected.isEmpty()) return affected;
+		// load replacements into a registry of their own, so renders carry on with the current modules meanwhile
+		Registry next = new Registry(Maps.filterKeys(current.modules, moduleName -> !affected.contains(moduleName)));
+		for (String moduleName : affected) {
+			awaitLoaded(next, moduleName);
+		}
+		registry = next;
+		return affected;
+	}
+
+	private static Set<String> dependents(Registry registry, Collection<String> moduleNames) {
+		Set<String> affected = new TreeSet<>();
+		for (String moduleName : moduleNames) {
+			if (registry.modules.containsKey(moduleName)) addDependents(registry, moduleName, affected);
+		}
+		return affected;
+	}
+
+	private static void addDependents(Registry registry, String moduleName, Set<String> affected) {
+		if (!affected.add(moduleName)) return;
+		for (Module module : registry.modules.values()) {
+			if (module.dependencies.contains(moduleName)) addDependents(registry, module.name, affected);
+		}
+	}
+
+	private void forgetCompiled(String moduleName) {
+		Matcher jsxMatcher = JSX_PATTERN.matcher(moduleName);
+		// scripts compiled from transformed JSX are keyed by their content, so only precompiled copies need forgetting
+		URL resource = jsxMatcher.matches() ? precompiledJSX(jsxMatcher.group(1)) : moduleResource(root + "/"
+				+ moduleName + ".js");
+		if (resource != null) compiledScripts.remove(resource.toString());
+	}
+
+	// when reloading, the source is what gets edited, so the precompiled copy built from it must not shadow it
+	private URL precompiledJSX(String residualName) {
+		if (preferSourceJsx && runtimeJsxTransform && moduleResource(root + "/" + residualName + ".jsx") != null)
+			return null;
+		return classLoader().getResource(PRECOMPILED_JSX_PREFIX + root + "/" + residualName + ".js");
+	}
+
+	public String moduleSource(String moduleName) throws IOException {
 		Matcher jsxMatcher = JSX_PATTERN.matcher(moduleName);
 		if (jsxMatcher.matches()) {
-			return loadJSX(moduleName, jsxMatcher.group(1));
+			String residualName = jsxMatcher.group(1);
+			URL precompiled = precompiledJSX(residualName);
+			if (precompiled != null) return Resources.toString(precompiled, StandardCharsets.UTF_8);
+			return transformedJSX(moduleName, requireModuleResource(root + "/" + residualName + ".jsx"));
+		}
+		if (moduleName.equals("react")) {
+			return Resources.toString(ReactResources.resourceFor("react-with-addons.min"), StandardCharsets.UTF_8);
+		}
+		if (moduleName.equals("JSXTransformer")) {
+			return Resources.toString(ReactResources.resourceFor("JSXTransformer"), StandardCharsets.UTF_8);
+		}
+		return Resources.toString(requireModuleResource(root + "/" + moduleName + ".js"), StandardCharsets.UTF_8);
+	}
+
+	boolean isLoaded(String moduleName) {
+		Module module = registry.modules.get(moduleName);
+		return module != null && module.loaded.isDone();
+	}
+
+	private ListenableFuture<Module> requireAsync(Registry registry, String moduleName) {
+		Module created = new Module(moduleName, registry);
+		Module existing = registry.modules.putIfAbsent(moduleName, created);
+		if (existing != null) return existing.loaded;
+		if (isReactModule(moduleName)) {
+			// these have no dependencies, so load them immediately rather than have a loader thread wait for them
+			start(created);
+		}
+		else {
+			loaderExecutor.execute(() -> start(created));
+		}
+		return created.loaded;
+	}
+
+	private void start(Module module) {
+		module.loadTimer = metrics.start(RenderMetrics.Operation.MODULE_LOAD, module.name);
+		try {
+			load(module);
+		} catch (Throwable t) {
+			failed(module, t);
+		}
+	}
+
+	private void failed(Module module, Throwable t) {
+		synchronized (module.registry.awaiting) {
+			module.registry.awaiting.remove(module.name);
+		}
+		module.registry.modules.remove(module.name, module);
+		if (module.loadTimer != null) module.loadTimer.failed();
+		module.loaded.setException(t);
+	}
+
+	private void load(Module module) throws IOException, ScriptException {
+		Matcher jsxMatcher = JSX_PATTERN.matcher(module.name);
+		if (jsxMatcher.matches()) {
+			loadJSX(module, jsxMatcher.group(1));
 		}
-		else if (moduleName.equals("react") || moduleName.equals("JSXTransformer")) {
-			ensureReactLoaded();
-			return modules.get(moduleName);
+		else if (module.name.equals("react")) {
+			loadReactModule(module, "react-with-addons.min", "React", React.class);
+		}
+		else if (module.name.equals("JSXTransformer")) {
+			loadReactModule(module, "JSXTransformer", "JSXTransformer", JSXTransformer.class);
 		}
 		else {
-			return loadBasic(moduleName);
+			loadBasic(module);
+		}
+	}
+
+	private static boolean isReactModule(String moduleName) {
+		return moduleName.equals("react") || moduleName.equals("JSXTransformer");
+	}
+
+	private void loadBasic(Module module) throws IOException, ScriptException {
+		URL resource = requireModuleResource(root + "/" + module.name + ".js");
+		JSObject defineCall = loadModuleFactory(module.name, resource.toString(), compile(resource));
+		define(module, defineCall);
+	}
+
+	private CompiledScript compile(URL resource) throws IOException, ScriptException {
+		String key = resource.toString();
+		CompiledScript compiled = compiledScripts.get(key);
+		if (compiled != null) return compiled;
+		try (Reader reader = new URLReader(resource, StandardCharsets.UTF_8)) {
+			compiled = ((Compilable) nashornEngine).compile(reader);
 		}
+		CompiledScript existing = compiledScripts.putIfAbsent(key, compiled);
+		return existing != null ? existing : compiled;
 	}
 
-	private Module loadBasic(String moduleName) throws IOException, ScriptException {
-		Module module = new Module();
-		modules.put(moduleName, module);
-		URL resource = Resources.getResource(root + "/" + moduleName + ".js");
-		JSObject defineCall = loadModuleFactory(moduleName, resource,
-				Resources.asCharSource(resource, StandardCharsets.UTF_8));
-		define(module, moduleName, defineCall);
-		return module;
+	private CompiledScript compile(String filename, String source) throws ScriptException {
+		String key = filename + "#" + Hashing.sha1().hashString(source, StandardCharsets.UTF_8);
+		CompiledScript compiled = compiledScripts.get(key);
+		if (compiled != null) return compiled;
+		// the only way to name a script compiled from a string is via the engine's default context
+		synchronized (nashornEngine) {
+			ScriptContext engineContext = nashornEngine.getContext();
+			engineContext.setAttribute(ScriptEngine.FILENAME, filename, ScriptContext.ENGINE_SCOPE);
+			try {
+				compiled = ((Compilable) nashornEngine).compile(source);
+			} finally {
+				engineContext.removeAttribute(ScriptEngine.FILENAME, ScriptContext.ENGINE_SCOPE);
+			}
+		}
+		CompiledScript existing = compiledScripts.putIfAbsent(key, compiled);
+		return existing != null ? existing : compiled;
 	}
 
-	private JSObject loadModuleFactory(String moduleName, URL resource, CharSource charSource) throws ScriptException,
-			IOException {
+	private CompiledScript compileSnippet(String source) throws ScriptException {
+		CompiledScript compiled = compiledScripts.get(source);
+		if (compiled != null) return compiled;
+		compiled = ((Compilable) nashornEngine).compile(source);
+		CompiledScript existing = compiledScripts.putIfAbsent(source, compiled);
+		return existing != null ? existing : compiled;
+	}
+
+	private JSObject loadModuleFactory(String moduleName, String sourceName, CompiledScript script)
+			throws ScriptException {
 		ScriptContext scriptContext = new SimpleScriptContext();
 		Bindings engineBindings = nashornEngine.createBindings();
 		scriptContext.setBindings(engineBindings, ScriptContext.ENGINE_SCOPE);
 		LoaderProxy loaderProxy = new LoaderProxy();
 		engineBindings.put("__loader", loaderProxy);
-		engineBindings.put("console", new Console(moduleName.replace('/', '_')));
-		engineBindings.put("define", nashornEngine.eval("(function() { __loader.define(arguments) })", scriptContext));
-		scriptContext.setAttribute(ScriptEngine.FILENAME, resource.toString(), ScriptContext.ENGINE_SCOPE);
-		try (BufferedReader reader = charSource.openBufferedStream()) {
-			nashornEngine.eval(reader, scriptContext);
+		engineBindings.put("console", console(moduleName.replace('/', '_')));
+		engineBindings.put("define", compileSnippet("(function() { __loader.define(arguments) })").eval(scriptContext));
+		synchronized (evaluationLock) {
+			script.eval(scriptContext);
 		}
-		if (loaderProxy.defineCalls.isEmpty()) throw new IllegalStateException("No call to define() from " + resource);
+		if (loaderProxy.defineCalls.isEmpty())
+			throw new IllegalStateException("No call to define() from " + sourceName);
 		JSObject defineCall = loaderProxy.defineCalls.poll();
 		if (!loaderProxy.defineCalls.isEmpty())
-			throw new IllegalStateException("Multiple calls to define() from " + resource);
+			throw new IllegalStateException("Multiple calls to define() from " + sourceName);
 		return defineCall;
 	}
 
-	private void define(Module module, String moduleName, JSObject defineCall) throws IOException, ScriptException {
+	private void define(Module module, JSObject defineCall) {
+		String moduleName = module.name;
 		JSObject callback;
 		List<String> dependencies;
 		if (defineCall.values().size() == 1) {
@@ -149,55 +504,166 @@ public class JSModuleContainer {
 		else {
 			throw new IllegalStateException(moduleName + ": was passed " + defineCall.values().size() + " arguments");
 		}
-		List<Object> dependencyValues = Lists.newArrayListWithExpectedSize(dependencies.size());
+		module.dependencies = dependencies;
+		awaitDependencies(module.registry.awaiting, moduleName, dependencies);
+		List<ListenableFuture<Module>> dependencyFutures = Lists.newArrayListWithExpectedSize(dependencies.size());
 		for (String dependencyName : dependencies) {
-			dependencyValues.add(require(dependencyName));
+			dependencyFutures.add(requireAsync(module.registry, dependencyName));
+		}
+		Futures.addCallback(Futures.allAsList(dependencyFutures), new FutureCallback<List<Module>>() {
+			@Override
+			public void onSuccess(List<Module> dependencyModules) {
+				try {
+					Object[] dependencyValues = new Object[dependencyModules.size()];
+					for (int i = 0; i < dependencyValues.length; i++) {
+						dependencyValues[i] = dependencyModules.get(i).value;
+					}
+					RenderMetrics.Timer timer = metrics.start(RenderMetrics.Operation.MODULE_DEFINE, moduleName);
+					try {
+						synchronized (evaluationLock) {
+							module.value = cacheable(moduleName, callback.call(null, dependencyValues));
+						}
+					} catch (Throwable t) {
+						timer.failed();
+						throw t;
+					}
+					timer.succeeded();
+				} catch (Throwable t) {
+					failed(module, t);
+					return;
+				}
+				loaded(module);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				failed(module, t);
+			}
+		});
+	}
+
+	private static void awaitDependencies(Map<String, Set<String>> awaiting, String moduleName,
+			List<String> dependencies) {
+		synchronized (awaiting) {
+			for (String dependencyName : dependencies) {
+				List<String> path = awaitingPath(awaiting, dependencyName, moduleName, new HashSet<>());
+				if (path != null) {
+					throw new IllegalStateException("Dependency cycle: "
+							+ Joiner.on(" -> ").join(Iterables.concat(ImmutableList.of(moduleName), path)));
+				}
+			}
+			awaiting.put(moduleName, ImmutableSet.copyOf(dependencies));
+		}
+	}
+
+	private static List<String> awaitingPath(Map<String, Set<String>> awaiting, String from, String to,
+			Set<String> visited) {
+		if (from.equals(to)) return ImmutableList.of(to);
+		if (!visited.add(from)) return null;
+		for (String next : awaiting.getOrDefault(from, ImmutableSet.of())) {
+			List<String> path = awaitingPath(awaiting, next, to, visited);
+			if (path != null) return ImmutableList.<String> builder().add(from).addAll(path).build();
+		}
+		return null;
+	}
+
+	private void loaded(Module module) {
+		synchronized (module.registry.awaiting) {
+			module.registry.awaiting.remove(module.name);
 		}
-		module.value = callback.call(null, dependencyValues.toArray());
-		module.state = Module.State.LOADED;
+		if (module.loadTimer != null) module.loadTimer.succeeded();
+		module.loaded.set(module);
 	}
 
-	private Module loadJSX(String moduleName, String residualName) throws IOException, ScriptException {
-		ensureReactLoaded();
-		Module module = new Module();
-		modules.put(moduleName, module);
-		URL resource = Resources.getResource(root + "/" + residualName + ".jsx");
-		JSXTransformer adaptor = modules.get("JSXTransformer").adaptors.getInstance(JSXTransformer.class);
-		JSObject jsTransformOutput = adaptor.transform(Resources.asCharSource(resource, StandardCharsets.UTF_8).read());
-		String jsSource = (String) jsTransformOutput.getMember("code");
-		JSObject defineCall = loadModuleFactory(residualName, resource, CharSource.wrap(jsSource));
-		define(module, moduleName, defineCall);
-		return module;
+	private void loadJSX(Module module, String residualName) throws IOException, ScriptException {
+		URL precompiled = precompiledJSX(residualName);
+		if (precompiled != null) {
+			JSObject defineCall = loadModuleFactory(residualName, precompiled.toString(), compile(precompiled));
+			define(module, defineCall);
+			return;
+		}
+		if (!runtimeJsxTransform)
+			throw new IllegalStateException("No precompiled JSX for " + module.name
+					+ " and runtime transform disabled");
+		URL resource = requireModuleResource(root + "/" + residualName + ".jsx");
+		String jsSource = transformedJSX(module.name, resource);
+		JSObject defineCall = loadModuleFactory(residualName, resource.toString(),
+				compile(resource.toString(), jsSource));
+		define(module, defineCall);
 	}
 
-	private void ensureReactLoaded() {
-		Module reactModule = modules.get("react");
-		if (reactModule != null) {
-			if (reactModule.state == Module.State.LOADED) return;
-			throw new IllegalStateException("React module is in state " + reactModule.state);
+	private String transformedJSX(String moduleName, URL resource) throws IOException {
+		String jsxSource = Resources.asCharSource(resource, StandardCharsets.UTF_8).read();
+		RenderMetrics.Timer timer = metrics.start(RenderMetrics.Operation.JSX_TRANSFORM, moduleName);
+		String jsSource;
+		try {
+			jsSource = jsxTransformCache.isPresent() ? jsxTransformCache.get().transform(jsxSource,
+					this::transformJSX) : transformJSX(jsxSource);
+		} catch (IOException | RuntimeException | Error e) {
+			timer.failed();
+			throw e;
 		}
+		timer.succeeded();
+		return jsSource;
+	}
+
+	private String transformJSX(String jsxSource) {
+		JSXTransformer adaptor;
 		try {
-			loadReactModule("JSXTransformer", "JSXTransformer", "JSXTransformer", JSXTransformer.class);
+			adaptor = require("JSXTransformer", JSXTransformer.class);
 		} catch (IOException | ScriptException e) {
 			throw new IllegalStateException("Unable to load JSXTransformer", e);
 		}
-		try {
-			loadReactModule("react", "react-with-addons.min", "React", React.class);
-		} catch (IOException | ScriptException e) {
-			throw new IllegalStateException("Unable to load React", e);
+		synchronized (evaluationLock) {
+			JSObject jsTransformOutput = adaptor.transform(jsxSource);
+			return (String) jsTransformOutput.getMember("code");
 		}
 	}
 
-	private <T> Module loadReactModule(String moduleName, String scriptName, String symbol, Class<T> adaptTo)
+	// a configured source directory is what gets edited, so it is consulted before the build's copy on the classpath
+	private URL moduleResource(String name) {
+		if (sourceDirectory.isPresent()) {
+			Path path = sourceDirectory.get().resolve(name);
+			if (Files.isRegularFile(path)) {
+				try {
+					return path.toUri().toURL();
+				} catch (MalformedURLException e) {
+					throw new IllegalStateException("Unable to locate " + path, e);
+				}
+			}
+		}
+		return classLoader().getResource(name);
+	}
+
+	private URL requireModuleResource(String name) {
+		URL resource = moduleResource(name);
+		if (resource == null) throw new IllegalArgumentException("resource " + name + " not found.");
+		return resource;
+	}
+
+	private static ClassLoader classLoader() {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		return contextClassLoader != null ? contextClassLoader : JSModuleContainer.class.getClassLoader();
+	}
+
+	private <T> void loadReactModule(Module module, String scriptName, String symbol, Class<T> adaptTo)
 			throws IOException, ScriptException {
-		Module module = new Module();
-		modules.put(moduleName, module);
-		module.value = loadReactScript(ReactResources.resourceFor(scriptName), symbol);
-		Invocable nashornInvoker = (Invocable) nashornEngine;
-		module.adaptors = ImmutableClassToInstanceMap.builder()
-				.put(adaptTo, nashornInvoker.getInterface(module.value, adaptTo)).build();
-		module.state = Module.State.LOADED;
-		return module;
+		RenderMetrics.Timer timer = metrics.start(RenderMetrics.Operation.REACT_SCRIPT_LOAD, module.name);
+		try {
+			module.value = loadReactScript(ReactResources.resourceFor(scriptName), symbol);
+		} catch (IOException | ScriptException | RuntimeException | Error e) {
+			timer.failed();
+			throw e;
+		}
+		timer.succeeded();
+		module.adaptors.put(adaptTo, adapt(module, adaptTo));
+		loaded(module);
+	}
+
+	private Console console(String context) {
+		return new Console(LoggerFactory.getLogger(JSModuleContainer.class.getName() + ".JS." + context),
+				consoleThrottles.computeIfAbsent(context, key -> new ConsoleThrottle(consoleRateLimit,
+						Ticker.systemTicker())));
 	}
 
 	private JSObject loadReactScript(URL resource, String symbol) throws IOException, ScriptException {
@@ -205,26 +671,158 @@ public class JSModuleContainer {
 		Bindings engineBindings = nashornEngine.createBindings();
 		scriptContext.setBindings(engineBindings, ScriptContext.ENGINE_SCOPE);
 		engineBindings.put("__loader", new LoaderProxy());
-		engineBindings.put("console", new Console(symbol));
-		nashornEngine.eval("var global = this", scriptContext);
-		scriptContext.setAttribute(ScriptEngine.FILENAME, resource.toString(), ScriptContext.ENGINE_SCOPE);
-		CharSource charSource = Resources.asCharSource(resource, StandardCharsets.UTF_8);
-		try (BufferedReader reader = charSource.openBufferedStream()) {
-			nashornEngine.eval(reader, scriptContext);
-		}
+		engineBindings.put("console", console(symbol));
+		compileSnippet("var global = this").eval(scriptContext);
+		compile(resource).eval(scriptContext);
 		return (JSObject) verifyNotNull(scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).get(symbol));
 	}
 
+	public static final class Builder {
+		private final String root;
+		private Optional<Path> sourceDirectory = Optional.empty();
+		private Optional<Path> codeCacheDirectory = Optional.empty();
+		private boolean runtimeJsxTransform = true;
+		private boolean preferSourceJsx = false;
+		private Optional<JSXTransformCache> jsxTransformCache = Optional.empty();
+		private Executor loaderExecutor = MoreExecutors.directExecutor();
+		private int consoleRateLimit = 100;
+		private RenderMetrics metrics = new RenderMetrics();
+		private boolean sharedEngine = false;
+		private Optional<ComponentCache> componentCache = Optional.empty();
+
+		private Builder(String root) {
+			this.root = root;
+		}
+
+		public Builder runtimeJsxTransform(boolean enabled) {
+			this.runtimeJsxTransform = enabled;
+			return this;
+		}
+
+		public Builder preferSourceJsx(boolean enabled) {
+			this.preferSourceJsx = enabled;
+			return this;
+		}
+
+		public Builder sourceDirectory(Path directory) {
+			this.sourceDirectory = Optional.of(directory);
+			return this;
+		}
+
+		public Builder persistentCodeCache(Path directory) {
+			this.codeCacheDirectory = Optional.of(directory);
+			return this;
+		}
+
+		public Builder jsxTransformCache(JSXTransformCache cache) {
+			this.jsxTransformCache = Optional.of(cache);
+			return this;
+		}
+
+		public Builder loaderExecutor(Executor executor) {
+			this.loaderExecutor = executor;
+			return this;
+		}
+
+		public Builder consoleRateLimit(int messagesPerSecond) {
+			this.consoleRateLimit = messagesPerSecond;
+			return this;
+		}
+
+		public Builder metrics(RenderMetrics metrics) {
+			this.metrics = metrics;
+			return this;
+		}
+
+		public Builder sharedEngine(boolean shared) {
+			this.sharedEngine = shared;
+			return this;
+		}
+
+		public Builder componentCache(ComponentCache cache) {
+			this.componentCache = Optional.of(cache);
+			return this;
+		}
+
+		public JSModuleContainer build() {
+			return new JSModuleContainer(this);
+		}
+	}
+
 	private static final class Module {
-		private static final ClassToInstanceMap<Object> NONE = ImmutableClassToInstanceMap.builder().build();
+		public final String name;
+		public final Registry registry;
+		public final SettableFuture<Module> loaded = SettableFuture.create();
+		public volatile Object value;
+		public final ConcurrentMap<Class<?>, Object> adaptors = new ConcurrentHashMap<>();
+		public volatile RenderMetrics.Timer loadTimer;
+		public volatile List<String> dependencies = ImmutableList.of();
+
+		public Module(String name, Registry registry) {
+			this.name = name;
+			this.registry = registry;
+		}
+
+		@Override
+		public String toString() {
+			return "Module:" + name;
+		}
+	}
+
+	// compiled classes belong to the engine, while every script runs against bindings (and so a global) of its own
+	private static final class SharedEngine {
+		public final ScriptEngine nashornEngine;
+		public final ConcurrentMap<String, CompiledScript> compiledScripts = new ConcurrentHashMap<>();
+
+		public SharedEngine(Optional<Path> codeCacheDirectory) {
+			this.nashornEngine = createEngine(codeCacheDirectory);
+		}
+	}
+
+	// call through the mirrors rather than the React adaptor, so that JS arguments are unwrapped; and look the
+	// functions up once rather than on every render
+	private static final class ReactFunctions {
+		public final JSObject react;
+		public final JSObject createElement;
+		public final JSObject renderToString;
+		public final JSObject renderToStaticMarkup;
+		public final JSObject renderAll;
+		public final JSObject cacheable;
+
+		public ReactFunctions(JSObject react) {
+			this.react = react;
+			this.createElement = (JSObject) react.getMember("createElement");
+			this.renderToString = (JSObject) react.getMember("renderToString");
+			this.renderToStaticMarkup = (JSObject) react.getMember("renderToStaticMarkup");
+			this.renderAll = (JSObject) react.eval("(function(React, component, propsList, staticMarkup) {"
+					+ " var n = propsList.length, markup = new Array(n);"
+					+ " for (var i = 0; i < n; i++) {"
+					+ " var element = React.createElement(component, propsList[i]);"
+					+ " markup[i] = staticMarkup ? React.renderToStaticMarkup(element) : React.renderToString(element);"
+					+ " }"
+					+ " return Java.to(markup, 'java.lang.String[]'); })");
+			// components marked with a "cacheable" static render inside a placeholder element during static renders,
+			// which the component cache either fills from a previous render or captures the markup of
+			this.cacheable = (JSObject) react.eval("(function(React, component, moduleName, cache) {"
+					+ " var wrapper = React.createClass({ displayName: component.displayName, render: function() {"
+					+ " var element = React.createElement(component, this.props);"
+					+ " if (!cache.active()) return element;"
+					+ " var slot = cache.slot(moduleName, this.props);"
+					+ " if (slot < 0) return element;"
+					+ " return React.createElement('" + ComponentCache.PLACEHOLDER_TAG + "', { 'data-slot': slot },"
+					+ " cache.cached(slot) ? null : element); } });"
+					+ " Object.keys(component).forEach(function(k) { wrapper[k] = component[k] });"
+					+ " return wrapper; })");
+		}
+	}
 
-		enum State {
-			LOADING, LOADED
-		};
+	private static final class Registry {
+		public final ConcurrentMap<String, Module> modules;
+		public final Map<String, Set<String>> awaiting = new HashMap<>();
 
-		public State state = State.LOADING;
-		public Object value;
-		public ClassToInstanceMap<Object> adaptors = NONE;
+		public Registry(Map<String, Module> modules) {
+			this.modules = new ConcurrentHashMap<>(modules);
+		}
 	}
 
 	public static class LoaderProxy {
@@ -240,33 +838,115 @@ public class JSModuleContainer {
 		}
 	}
 
-	public class Console {
+	public static class Console {
+		private static final int MAX_MESSAGE_LENGTH = 2000;
+		private static final int MAX_ELEMENTS = 20;
+		private static final int MAX_DEPTH = 2;
 		private final Logger logger;
+		private final ConsoleThrottle throttle;
+		private final Map<String, Long> timers = new ConcurrentHashMap<>();
+
+		Console(Logger logger, ConsoleThrottle throttle) {
+			this.logger = logger;
+			this.throttle = throttle;
+		}
+
+		public void debug(Object... args) {
+			if (logger.isDebugEnabled() && admit()) logger.debug("{}", message(args));
+		}
+
+		public void log(Object... args) {
+			if (logger.isInfoEnabled() && admit()) logger.info("{}", message(args));
+		}
+
+		public void info(Object... args) {
+			if (logger.isInfoEnabled() && admit()) logger.info("{}", message(args));
+		}
+
+		public void warn(Object... args) {
+			if (logger.isWarnEnabled() && admit()) logger.warn("{}", message(args));
+		}
+
+		public void error(Object... args) {
+			if (logger.isErrorEnabled() && admit()) logger.error("{}", message(args));
+		}
 
-		private Console(String context) {
-			logger = LoggerFactory.getLogger(JSModuleContainer.class.getName() + ".JS." + context);
+		public void time(String label) {
+			timers.put(label, System.nanoTime());
 		}
 
-		public void log(String message, JSObject... args) {
-			logger.info(format(message, args));
+		public void timeEnd(String label) {
+			Long started = timers.remove(label);
+			if (started == null) return;
+			if (logger.isInfoEnabled() && admit())
+				logger.info("{}: {}ms", label, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started) / 1000.0);
 		}
 
-		public void info(String message, JSObject... args) {
-			logger.info(format(message, args));
+		private boolean admit() {
+			long suppressed = throttle.admit();
+			if (suppressed < 0) return false;
+			if (suppressed > 0) logger.warn("{} console messages suppressed by rate limit", suppressed);
+			return true;
 		}
 
-		public void warn(String message, JSObject... args) {
-			logger.warn(format(message, args));
+		private static Object message(Object[] args) {
+			return new Object() {
+				@Override
+				public String toString() {
+					return format(args);
+				}
+			};
 		}
 
-		public void error(String message, JSObject... args) {
-			logger.error(format(message, args));
+		static String format(Object... args) {
+			StringBuilder builder = new StringBuilder();
+			for (Object arg : args) {
+				if (builder.length() > 0) builder.append(' ');
+				append(builder, arg, 0);
+				if (builder.length() > MAX_MESSAGE_LENGTH) break;
+			}
+			if (builder.length() <= MAX_MESSAGE_LENGTH) return builder.toString();
+			return builder.substring(0, MAX_MESSAGE_LENGTH) + "...";
 		}
 
-		private String format(String message, JSObject... args) {
-			return Joiner.on(' ').join(
-					Iterables.concat(ImmutableList.<Object> of(message),
-							Lists.transform(Arrays.asList(args), toStringFunction())));
+		private static void append(StringBuilder builder, Object value, int depth) {
+			if (ScriptObjectMirror.isUndefined(value)) {
+				builder.append("undefined");
+				return;
+			}
+			if (value instanceof Double && ((Double) value) == Math.rint((Double) value)
+					&& !Double.isInfinite((Double) value)) {
+				builder.append(((Double) value).longValue());
+				return;
+			}
+			if (!(value instanceof JSObject)) {
+				builder.append(value);
+				return;
+			}
+			JSObject object = (JSObject) value;
+			if (object.isFunction()) {
+				builder.append("function");
+				return;
+			}
+			boolean array = object.isArray();
+			if (depth >= MAX_DEPTH) {
+				builder.append(array ? "[...]" : "{...}");
+				return;
+			}
+			builder.append(array ? '[' : '{');
+			int count = 0;
+			for (String key : object.keySet()) {
+				if (count > 0) builder.append(", ");
+				if (count++ == MAX_ELEMENTS || builder.length() > MAX_MESSAGE_LENGTH) {
+					builder.append("...");
+					break;
+				}
+				if (!array) builder.append(key).append(": ");
+				Object member = object.getMember(key);
+				if (member instanceof String) builder.append('"').append(member).append('"');
+				else append(builder, member, depth + 1);
+			}
+			builder.append(array ? ']' : '}');
 		}
 	}
 
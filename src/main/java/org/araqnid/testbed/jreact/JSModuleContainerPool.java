@@ -0,0 +1,236 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.script.ScriptException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+public class JSModuleContainerPool extends AbstractIdleService {
+	private static final Logger LOG = LoggerFactory.getLogger(JSModuleContainerPool.class);
+	private final Supplier<JSModuleContainer> factory;
+	private final int size;
+	private final List<String> preloadModules;
+	private final long acquireTimeoutMillis;
+	private final BlockingQueue<JSModuleContainer> idle;
+	private final LongAdder quarantined = new LongAdder();
+	private final Set<JSModuleContainer> containers = ConcurrentHashMap.newKeySet();
+	private final Map<JSModuleContainer, Set<String>> stale = new HashMap<>();
+	private volatile JSModuleContainer template;
+	private volatile ExecutorService replacementThread;
+
+	public JSModuleContainerPool(Supplier<JSModuleContainer> factory, int size, List<String> preloadModules,
+			long acquireTimeout, TimeUnit acquireTimeoutUnit) {
+		checkArgument(size > 0, "pool size must be positive: %s", size);
+		this.factory = factory;
+		this.size = size;
+		this.preloadModules = ImmutableList.copyOf(preloadModules);
+		this.acquireTimeoutMillis = acquireTimeoutUnit.toMillis(acquireTimeout);
+		this.idle = new ArrayBlockingQueue<>(size);
+	}
+
+	public Lease acquire() throws InterruptedException, TimeoutException {
+		return acquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public Lease acquire(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+		checkState(isRunning(), "pool is not running: %s", state());
+		JSModuleContainer container = idle.poll(timeout, unit);
+		if (container == null)
+			throw new TimeoutException("No JS container available after " + unit.toMillis(timeout) + "ms");
+		return new Lease(container);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int available() {
+		return idle.size();
+	}
+
+	public long quarantinedCount() {
+		return quarantined.sum();
+	}
+
+	// a leased container may be part way through a render, so only idle containers are reloaded here: leased ones are
+	// marked stale and brought up to date when they are released
+	public Set<String> reload(Collection<String> changedModuleNames) throws IOException, ScriptException {
+		List<JSModuleContainer> reloading = new ArrayList<>();
+		synchronized (stale) {
+			idle.drainTo(reloading);
+			for (JSModuleContainer container : containers) {
+				if (reloading.contains(container)) continue;
+				stale.computeIfAbsent(container, key -> new TreeSet<>()).addAll(changedModuleNames);
+			}
+		}
+		Set<String> reloaded = new TreeSet<>();
+		Exception failure = null;
+		for (JSModuleContainer container : reloading) {
+			try {
+				reloaded.addAll(container.reload(changedModuleNames));
+			} catch (IOException | ScriptException e) {
+				if (failure == null) failure = e;
+			} finally {
+				release(container);
+			}
+		}
+		if (failure instanceof IOException) throw (IOException) failure;
+		if (failure instanceof ScriptException) throw (ScriptException) failure;
+		return reloaded;
+	}
+
+	public int staleCount() {
+		synchronized (stale) {
+			return stale.size();
+		}
+	}
+
+	@Override
+	protected void startUp() throws Exception {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		template = warm(factory.get());
+		LOG.info("Warmed template JS container in {}", stopwatch);
+		idle.add(template);
+		containers.add(template);
+		if (size > 1) {
+			ExecutorService warmupThreads = Executors.newFixedThreadPool(
+					Math.min(size - 1, Runtime.getRuntime().availableProcessors()),
+					new ThreadFactoryBuilder().setNameFormat("js-warmup-%d").setDaemon(true).build());
+			try {
+				ListeningExecutorService executor = MoreExecutors.listeningDecorator(warmupThreads);
+				ImmutableList.Builder<ListenableFuture<JSModuleContainer>> futures = ImmutableList.builder();
+				for (int i = 1; i < size; i++) {
+					futures.add(executor.submit(() -> warm(template.spawn())));
+				}
+				List<JSModuleContainer> spawned = Futures.allAsList(futures.build()).get();
+				idle.addAll(spawned);
+				containers.addAll(spawned);
+			} finally {
+				warmupThreads.shutdownNow();
+			}
+		}
+		LOG.info("Warmed {} JS containers in {}", size, stopwatch);
+		replacementThread = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+				.setNameFormat("js-replacement").setDaemon(true).build());
+	}
+
+	@Override
+	protected void shutDown() throws Exception {
+		replacementThread.shutdownNow();
+		synchronized (stale) {
+			idle.clear();
+			containers.clear();
+			stale.clear();
+		}
+	}
+
+	private JSModuleContainer warm(JSModuleContainer container) throws Exception {
+		container.require("react");
+		for (String moduleName : preloadModules) {
+			container.require(moduleName);
+		}
+		return container;
+	}
+
+	private void release(JSModuleContainer container) {
+		Set<String> changed;
+		synchronized (stale) {
+			changed = stale.remove(container);
+			if (changed == null) {
+				if (!idle.offer(container)) throw new IllegalStateException("Pool overflow returning " + container);
+				return;
+			}
+		}
+		replacementThread.execute(() -> {
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			try {
+				Set<String> reloaded = container.reload(changed);
+				LOG.info("Reloaded {} in released JS container {} in {}", reloaded, container, stopwatch);
+			} catch (IOException | ScriptException | RuntimeException e) {
+				LOG.error("Unable to reload {} in released JS container {}; keeping previous modules", changed,
+						container, e);
+			}
+			release(container);
+		});
+	}
+
+	private void replace(JSModuleContainer container) {
+		quarantined.increment();
+		synchronized (stale) {
+			containers.remove(container);
+			stale.remove(container);
+		}
+		replacementThread.execute(() -> {
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			try {
+				// the quarantined container may have been stopped half way through using the engine it shared with
+				// the template, so its replacement gets an engine of its own
+				JSModuleContainer replacement = warm(factory.get());
+				containers.add(replacement);
+				release(replacement);
+				LOG.info("Replaced quarantined JS container {} in {}", container, stopwatch);
+			} catch (Exception e) {
+				LOG.error("Unable to replace quarantined JS container {}", container, e);
+			}
+		});
+	}
+
+	public final class Lease implements AutoCloseable {
+		private final JSModuleContainer container;
+		private boolean released;
+
+		private Lease(JSModuleContainer container) {
+			this.container = container;
+		}
+
+		public synchronized JSModuleContainer container() {
+			checkState(!released, "lease already released");
+			return container;
+		}
+
+		// may be called from another thread while the container is still in use: the container is thrown away and
+		// replaced straight away, and closing the lease afterwards does nothing
+		public synchronized void quarantine() {
+			if (released) return;
+			released = true;
+			replace(container);
+		}
+
+		@Override
+		public synchronized void close() {
+			if (released) return;
+			released = true;
+			release(container);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+public class JSXTransformCache {
+	private static final Logger LOG = LoggerFactory.getLogger(JSXTransformCache.class);
+	private final Path directory;
+	private final Cache<String, String> transformed = CacheBuilder.newBuilder().softValues().build();
+
+	public JSXTransformCache(Path directory) {
+		this.directory = directory;
+	}
+
+	public String transform(String jsxSource, Function<String, String> transformer) throws IOException {
+		String key = keyFor(jsxSource);
+		try {
+			return transformed.get(key, () -> readOrTransform(key, jsxSource, transformer));
+		} catch (ExecutionException e) {
+			Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+	private String readOrTransform(String key, String jsxSource, Function<String, String> transformer)
+			throws IOException {
+		Path file = directory.resolve(key.substring(0, 2)).resolve(key + ".js");
+		if (Files.exists(file)) return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		String jsSource = transformer.apply(jsxSource);
+		Files.createDirectories(file.getParent());
+		Path tempFile = Files.createTempFile(file.getParent(), key, ".tmp");
+		try {
+			Files.write(tempFile, jsSource.getBytes(StandardCharsets.UTF_8));
+			Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+		LOG.debug("Stored JSX transform output as {}", file);
+		return jsSource;
+	}
+
+	private static String keyFor(String jsxSource) {
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putString(ReactResources.REACT_VERSION, StandardCharsets.UTF_8);
+		hasher.putByte((byte) 0);
+		hasher.putString(jsxSource, StandardCharsets.UTF_8);
+		return hasher.hash().toString();
+	}
+
+	@Override
+	public String toString() {
+		return "JSXTransformCache:" + directory;
+	}
+}
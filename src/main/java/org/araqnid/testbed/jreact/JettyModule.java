@@ -16,8 +16,8 @@ import org.araqnid.testbed.jreact.AppConfigModule.Managed;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
-import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.resource.Resource;
 
 import com.google.common.reflect.ClassPath;
@@ -45,10 +45,19 @@ public class JettyModule extends AbstractModule {
 	}
 
 	@Provides
-	public Handler handler(@Named("webappRoot") Resource webappRoot) {
+	public Handler handler(@Named("webappRoot") Resource webappRoot, RenderServlet renderServlet,
+			RenderStatusServlet renderStatusServlet, ReadinessServlet readinessServlet, MetricsServlet metricsServlet,
+			BundleServlet bundleServlet, StaticAssetServlet staticAssetServlet) {
 		ServletContextHandler servletContextHandler = new ServletContextHandler();
 		servletContextHandler.setBaseResource(webappRoot);
-		servletContextHandler.addServlet(DefaultServlet.class, "/*");
+		ServletHolder renderServletHolder = new ServletHolder(renderServlet);
+		renderServletHolder.setAsyncSupported(true);
+		servletContextHandler.addServlet(renderServletHolder, "/page/*");
+		servletContextHandler.addServlet(new ServletHolder(renderStatusServlet), "/_status/render");
+		servletContextHandler.addServlet(new ServletHolder(readinessServlet), "/_status/ready");
+		servletContextHandler.addServlet(new ServletHolder(metricsServlet), "/metrics");
+		servletContextHandler.addServlet(new ServletHolder(bundleServlet), "/bundle/*");
+		servletContextHandler.addServlet(new ServletHolder(staticAssetServlet), "/*");
 		return servletContextHandler;
 	}
 
@@ -60,6 +69,12 @@ public class JettyModule extends AbstractModule {
 		return new EmbeddedResource(classLoader, "web", ClassPath.from(classLoader));
 	}
 
+	@Provides
+	@Singleton
+	public AssetManifest assetManifest(@Named("webappRoot") Resource webappRoot) {
+		return new AssetManifest((EmbeddedResource) webappRoot);
+	}
+
 	private Multibinder<Service> managedServices() {
 		return Multibinder.newSetBinder(binder(), Service.class, Managed.class);
 	}
@@ -0,0 +1,27 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class MetricsServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+	private final transient RenderMetrics metrics;
+
+	@Inject
+	public MetricsServlet(RenderMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+		try (Writer writer = resp.getWriter()) {
+			metrics.writePrometheus(writer);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class ModuleReloader extends AbstractIdleService {
+	private static final Logger LOG = LoggerFactory.getLogger(ModuleReloader.class);
+	private static final long SETTLE_MILLIS = 50;
+	private final JSModuleContainerPool pool;
+	private final RenderCache renderCache;
+	private final ComponentCache componentCache;
+	private final ClientBundler bundler;
+	private final String moduleRoot;
+	private final Optional<Path> sourceDirectory;
+	private final boolean enabled;
+	private volatile WatchService watchService;
+	private volatile ExecutorService watcherThread;
+	private volatile Path rootDirectory;
+
+	public ModuleReloader(JSModuleContainerPool pool, RenderCache renderCache, ComponentCache componentCache,
+			ClientBundler bundler, String moduleRoot, Optional<Path> sourceDirectory, boolean enabled) {
+		this.pool = pool;
+		this.renderCache = renderCache;
+		this.componentCache = componentCache;
+		this.bundler = bundler;
+		this.moduleRoot = moduleRoot;
+		this.sourceDirectory = sourceDirectory;
+		this.enabled = enabled;
+	}
+
+	@Override
+	protected void startUp() throws Exception {
+		if (!enabled) return;
+		Optional<Path> directory = sourceDirectory.isPresent() ? sourceDirectory.map(path -> path.resolve(moduleRoot))
+				.filter(Files::isDirectory) : moduleDirectory();
+		if (!directory.isPresent()) {
+			LOG.warn("Module root {} is not a directory under {}; hot reload disabled", moduleRoot,
+					sourceDirectory.map(Path::toString).orElse("the classpath"));
+			return;
+		}
+		rootDirectory = directory.get();
+		if (!sourceDirectory.isPresent()) {
+			LOG.warn("No module source directory configured, so watching the classpath copy in {}: edits to the source "
+					+ "tree are only seen once the build copies them there", rootDirectory);
+		}
+		watchService = FileSystems.getDefault().newWatchService();
+		watchTree(rootDirectory);
+		watcherThread = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("module-reloader")
+				.setDaemon(true).build());
+		watcherThread.execute(this::watch);
+		LOG.info("Watching {} for module changes", rootDirectory);
+	}
+
+	@Override
+	protected void shutDown() throws Exception {
+		if (watchService != null) watchService.close();
+		if (watcherThread != null) watcherThread.shutdownNow();
+	}
+
+	private Optional<Path> moduleDirectory() throws URISyntaxException {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		URL url = (contextClassLoader != null ? contextClassLoader : ModuleReloader.class.getClassLoader())
+				.getResource(moduleRoot);
+		if (url == null || !url.getProtocol().equals("file")) return Optional.empty();
+		Path path = Paths.get(url.toURI());
+		return Files.isDirectory(path) ? Optional.of(path) : Optional.empty();
+	}
+
+	private void watchTree(Path top) throws IOException {
+		Files.walkFileTree(top, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+						StandardWatchEventKinds.ENTRY_DELETE);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				Set<String> changed = new TreeSet<>();
+				collect(watchService.take(), changed);
+				// editors tend to write a file in several steps, so let the burst settle before reloading
+				WatchKey key;
+				while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					collect(key, changed);
+				}
+				if (!changed.isEmpty()) reload(changed);
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			// shutting down
+		}
+	}
+
+	private void collect(WatchKey key, Set<String> changed) {
+		Path directory = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+			Path path = directory.resolve((Path) event.context());
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+				try {
+					watchTree(path);
+				} catch (IOException e) {
+					LOG.warn("Unable to watch {}", path, e);
+				}
+				continue;
+			}
+			moduleName(rootDirectory.relativize(path)).ifPresent(changed::add);
+		}
+		key.reset();
+	}
+
+	private void reload(Set<String> changed) {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		try {
+			Set<String> reloaded = pool.reload(changed);
+			for (String moduleName : Sets.union(changed, reloaded)) {
+				renderCache.invalidateModule(moduleName);
+				componentCache.invalidateModule(moduleName);
+			}
+			bundler.invalidateAll();
+			LOG.info("Reloaded {} after change to {} in {}", reloaded, changed, stopwatch);
+		} catch (Exception e) {
+			LOG.error("Unable to reload after change to {}; keeping previous modules", changed, e);
+		}
+	}
+
+	static Optional<String> moduleName(Path relativePath) {
+		String name = Joiner.on('/').join(relativePath);
+		if (name.endsWith(".jsx")) return Optional.of("jsx!" + name.substring(0, name.length() - ".jsx".length()));
+		if (name.endsWith(".js")) return Optional.of(name.substring(0, name.length() - ".js".length()));
+		return Optional.empty();
+	}
+}
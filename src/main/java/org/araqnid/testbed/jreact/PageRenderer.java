@@ -0,0 +1,75 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javax.script.ScriptException;
+
+import com.google.common.collect.ImmutableSet;
+
+public class PageRenderer {
+	private static final Pattern PAGE_NAME = Pattern.compile("[A-Za-z0-9_-]+(/[A-Za-z0-9_-]+)*");
+	private final JSModuleContainerPool pool;
+	private final RenderCache cache;
+	private final RenderWatchdog watchdog;
+	private final String moduleRoot;
+	private final long cacheTtlSeconds;
+	private final long renderTimeoutMillis;
+
+	public PageRenderer(JSModuleContainerPool pool, RenderCache cache, RenderWatchdog watchdog, String moduleRoot,
+			long cacheTtlSeconds, long renderTimeoutMillis) {
+		this.pool = pool;
+		this.cache = cache;
+		this.watchdog = watchdog;
+		this.moduleRoot = moduleRoot;
+		this.cacheTtlSeconds = cacheTtlSeconds;
+		this.renderTimeoutMillis = renderTimeoutMillis;
+	}
+
+	public Optional<String> resolve(String path) {
+		String pageName = path.startsWith("/") ? path.substring(1) : path;
+		if (!PAGE_NAME.matcher(pageName).matches()) return Optional.empty();
+		ClassLoader classLoader = PageRenderer.class.getClassLoader();
+		URL precompiled = classLoader.getResource(JSModuleContainer.PRECOMPILED_JSX_PREFIX + moduleRoot + "/"
+				+ pageName + ".js");
+		URL source = classLoader.getResource(moduleRoot + "/" + pageName + ".jsx");
+		if (precompiled == null && source == null) return Optional.empty();
+		return Optional.of("jsx!" + pageName);
+	}
+
+	public String render(String moduleName, Object props, Consumer<? super TimeoutException> onTimeout)
+			throws IOException, ScriptException, TimeoutException, InterruptedException {
+		if (cacheTtlSeconds <= 0) return renderUncached(moduleName, props, onTimeout);
+		return cache.render(moduleName, props, cacheTtlSeconds, TimeUnit.SECONDS, ImmutableSet.of(moduleName),
+				() -> {
+					try {
+						return renderUncached(moduleName, props, onTimeout);
+					} catch (TimeoutException | InterruptedException e) {
+						throw new IOException(e.getMessage(), e);
+					}
+				});
+	}
+
+	private String renderUncached(String moduleName, Object props, Consumer<? super TimeoutException> onTimeout)
+			throws IOException, ScriptException, TimeoutException, InterruptedException {
+		try (JSModuleContainerPool.Lease lease = pool.acquire()) {
+			JSModuleContainer container = lease.container();
+			try {
+				return watchdog.call(() -> container.renderToString(moduleName, props), renderTimeoutMillis,
+						TimeUnit.MILLISECONDS, moduleName, props, e -> {
+							lease.quarantine();
+							onTimeout.accept(e);
+						});
+			} catch (RenderWatchdog.RenderTimeoutException | IOException | ScriptException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.escape.Escaper;
+import com.google.common.html.HtmlEscapers;
+
+public final class PageShell {
+	private static final Escaper HTML = HtmlEscapers.htmlEscaper();
+	private final String title;
+	private final List<String> stylesheets;
+	private final List<String> scripts;
+
+	public PageShell(String title, List<String> stylesheets, List<String> scripts) {
+		this.title = title;
+		this.stylesheets = ImmutableList.copyOf(stylesheets);
+		this.scripts = ImmutableList.copyOf(scripts);
+	}
+
+	public String head() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>").append(HTML.escape(title))
+				.append("</title>\n");
+		for (String stylesheet : stylesheets) {
+			builder.append("<link rel=\"stylesheet\" href=\"").append(HTML.escape(stylesheet)).append("\">\n");
+		}
+		return builder.append("</head>\n<body>\n<div id=\"root\">").toString();
+	}
+
+	public String tail() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("</div>\n");
+		for (String script : scripts) {
+			builder.append("<script src=\"").append(HTML.escape(script)).append("\"></script>\n");
+		}
+		return builder.append("</body>\n</html>\n").toString();
+	}
+}
@@ -0,0 +1,355 @@
+package org.araqnid.testbed.jreact;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jdk.nashorn.api.scripting.AbstractJSObject;
+import jdk.nashorn.api.scripting.JSObject;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public final class PropsBridge {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ConcurrentMap<Class<?>, Map<String, AnnotatedMember>> BEAN_PROPERTIES =
+			new ConcurrentHashMap<>();
+	private static final Set<String> ARRAY_METHODS = ImmutableSet.of("concat", "every", "filter", "forEach",
+			"indexOf", "join", "lastIndexOf", "map", "reduce", "reduceRight", "slice", "some");
+	private final JSObject toObject;
+	private final JSObject toArray;
+	private final JSObject toObjects;
+	private final Object undefined;
+
+	public PropsBridge(JSObject scope) {
+		this.undefined = scope.eval("undefined");
+		this.toObject = (JSObject) scope.eval("(function(view) {"
+				+ " var obj = {}; for (var k in view) obj[k] = view[k]; return obj; })");
+		this.toArray = (JSObject) scope.eval("(function(view) {"
+				+ " var n = view.length, arr = new Array(n); for (var i = 0; i < n; i++) arr[i] = view[i]; return arr; })");
+		this.toObjects = (JSObject) scope.eval("(function(views) {"
+				+ " var n = views.length, arr = new Array(n);"
+				+ " for (var i = 0; i < n; i++) { var view = views[i]; if (view === null) { arr[i] = null; continue; }"
+				+ " var obj = {}; for (var k in view) obj[k] = view[k]; arr[i] = obj; }"
+				+ " return arr; })");
+	}
+
+	public JSObject props(Object value) {
+		Object wrapped = wrap(value);
+		if (!(wrapped instanceof ObjectView)) throw new IllegalArgumentException("Props must be an object: " + value);
+		// React copies props with for-in and Object.prototype.hasOwnProperty, which a JSObject does not support, so
+		// materialize only the top level as a real JS object
+		return (JSObject) toObject.call(null, wrapped);
+	}
+
+	public JSObject propsList(List<?> values) {
+		Object[] views = new Object[values.size()];
+		for (int i = 0; i < views.length; i++) {
+			Object value = values.get(i);
+			if (value == null) continue;
+			views[i] = wrap(value);
+			if (!(views[i] instanceof ObjectView))
+				throw new IllegalArgumentException("Props must be an object: " + value);
+		}
+		// materialize every element's top level in one call, rather than crossing into JS once per element
+		return (JSObject) toObjects.call(null, new Object[] { views });
+	}
+
+	public Object wrap(Object value) {
+		if (value == null || value instanceof JSObject || value instanceof String || value instanceof Boolean
+				|| value instanceof Integer || value instanceof Double) return value;
+		if (value instanceof Number) return ((Number) value).doubleValue();
+		if (value instanceof Character || value instanceof Enum) return value.toString();
+		if (value instanceof JsonNode) return wrapJson((JsonNode) value);
+		if (value instanceof Map) return new MapView((Map<?, ?>) value);
+		if (value instanceof List) return new ListView((List<?>) value);
+		if (value instanceof Iterable) return new ListView(ImmutableList.copyOf((Iterable<?>) value));
+		if (value.getClass().isArray()) return new ArrayView(value);
+		return new BeanView(value);
+	}
+
+	private Object wrapJson(JsonNode node) {
+		if (node.isNull() || node.isMissingNode()) return null;
+		if (node.isTextual()) return node.textValue();
+		if (node.isBoolean()) return node.booleanValue();
+		if (node.isInt()) return node.intValue();
+		if (node.isNumber()) return node.doubleValue();
+		if (node.isObject()) return new JsonObjectView(node);
+		if (node.isArray()) return new JsonArrayView(node);
+		return node.asText();
+	}
+
+	private abstract class ObjectView extends AbstractJSObject {
+		private final Map<String, Object> wrapped = new HashMap<>();
+
+		protected abstract Object rawMember(String name);
+
+		@Override
+		public abstract boolean hasMember(String name);
+
+		@Override
+		public Object getMember(String name) {
+			if (!hasMember(name))
+				return name.equals("hasOwnProperty") ? new HasOwnProperty(this) : undefined;
+			return wrapped.computeIfAbsent(name, key -> wrap(rawMember(key)));
+		}
+
+		@Override
+		public String getClassName() {
+			return "Object";
+		}
+
+		@Override
+		public String toString() {
+			return "[object Object]";
+		}
+	}
+
+	private final class MapView extends ObjectView {
+		private final Map<?, ?> map;
+
+		MapView(Map<?, ?> map) {
+			this.map = map;
+		}
+
+		@Override
+		protected Object rawMember(String name) {
+			return map.get(name);
+		}
+
+		@Override
+		public boolean hasMember(String name) {
+			return map.containsKey(name);
+		}
+
+		@Override
+		public Set<String> keySet() {
+			ImmutableSet.Builder<String> keys = ImmutableSet.builder();
+			for (Object key : map.keySet()) {
+				keys.add(String.valueOf(key));
+			}
+			return keys.build();
+		}
+	}
+
+	private final class JsonObjectView extends ObjectView {
+		private final JsonNode node;
+
+		JsonObjectView(JsonNode node) {
+			this.node = node;
+		}
+
+		@Override
+		protected Object rawMember(String name) {
+			return node.get(name);
+		}
+
+		@Override
+		public boolean hasMember(String name) {
+			return node.has(name);
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return ImmutableSet.copyOf(node.fieldNames());
+		}
+	}
+
+	private final class BeanView extends ObjectView {
+		private final Object bean;
+		private final Map<String, AnnotatedMember> properties;
+
+		BeanView(Object bean) {
+			this.bean = bean;
+			this.properties = BEAN_PROPERTIES.computeIfAbsent(bean.getClass(), PropsBridge::introspect);
+		}
+
+		@Override
+		protected Object rawMember(String name) {
+			return properties.get(name).getValue(bean);
+		}
+
+		@Override
+		public boolean hasMember(String name) {
+			return properties.containsKey(name);
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return properties.keySet();
+		}
+	}
+
+	private static Map<String, AnnotatedMember> introspect(Class<?> beanClass) {
+		BeanDescription description = MAPPER.getSerializationConfig().introspect(MAPPER.constructType(beanClass));
+		ImmutableMap.Builder<String, AnnotatedMember> properties = ImmutableMap.builder();
+		for (BeanPropertyDefinition property : description.findProperties()) {
+			AnnotatedMember accessor = property.getAccessor();
+			if (accessor != null) {
+				accessor.fixAccess();
+				properties.put(property.getName(), accessor);
+			}
+		}
+		return properties.build();
+	}
+
+	private abstract class SequenceView extends AbstractJSObject {
+		private Object[] wrapped;
+		private JSObject materialized;
+
+		protected abstract int size();
+
+		protected abstract Object rawElement(int index);
+
+		@Override
+		public Object getSlot(int index) {
+			if (index < 0 || index >= size()) return undefined;
+			if (wrapped == null) wrapped = new Object[size()];
+			if (wrapped[index] == null) wrapped[index] = wrap(rawElement(index));
+			return wrapped[index];
+		}
+
+		@Override
+		public boolean hasSlot(int slot) {
+			return slot >= 0 && slot < size();
+		}
+
+		@Override
+		public boolean hasMember(String name) {
+			return name.equals("length") || ARRAY_METHODS.contains(name);
+		}
+
+		@Override
+		public Object getMember(String name) {
+			if (name.equals("length")) return size();
+			if (ARRAY_METHODS.contains(name)) return new BoundMethod(materialized(), name);
+			return undefined;
+		}
+
+		@Override
+		public Set<String> keySet() {
+			ImmutableSet.Builder<String> keys = ImmutableSet.builder();
+			for (int i = 0; i < size(); i++) {
+				keys.add(String.valueOf(i));
+			}
+			return keys.build();
+		}
+
+		@Override
+		public boolean isArray() {
+			return true;
+		}
+
+		@Override
+		public String getClassName() {
+			return "Array";
+		}
+
+		private JSObject materialized() {
+			if (materialized == null) materialized = (JSObject) toArray.call(null, this);
+			return materialized;
+		}
+	}
+
+	private final class ListView extends SequenceView {
+		private final List<?> list;
+
+		ListView(List<?> list) {
+			this.list = list;
+		}
+
+		@Override
+		protected int size() {
+			return list.size();
+		}
+
+		@Override
+		protected Object rawElement(int index) {
+			return list.get(index);
+		}
+	}
+
+	private final class ArrayView extends SequenceView {
+		private final Object array;
+
+		ArrayView(Object array) {
+			this.array = array;
+		}
+
+		@Override
+		protected int size() {
+			return Array.getLength(array);
+		}
+
+		@Override
+		protected Object rawElement(int index) {
+			return Array.get(array, index);
+		}
+	}
+
+	private final class JsonArrayView extends SequenceView {
+		private final JsonNode node;
+
+		JsonArrayView(JsonNode node) {
+			this.node = node;
+		}
+
+		@Override
+		protected int size() {
+			return node.size();
+		}
+
+		@Override
+		protected Object rawElement(int index) {
+			return node.get(index);
+		}
+	}
+
+	private static final class HasOwnProperty extends AbstractJSObject {
+		private final ObjectView view;
+
+		HasOwnProperty(ObjectView view) {
+			this.view = view;
+		}
+
+		@Override
+		public Object call(Object thiz, Object... args) {
+			return args.length > 0 && view.hasMember(String.valueOf(args[0]));
+		}
+
+		@Override
+		public boolean isFunction() {
+			return true;
+		}
+	}
+
+	private static final class BoundMethod extends AbstractJSObject {
+		private final JSObject target;
+		private final JSObject method;
+
+		BoundMethod(JSObject target, String name) {
+			this.target = target;
+			this.method = (JSObject) target.getMember(name);
+		}
+
+		@Override
+		public Object call(Object thiz, Object... args) {
+			return method.call(target, args);
+		}
+
+		@Override
+		public boolean isFunction() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.common.util.concurrent.ServiceManager;
+
+public class ReadinessServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+	private final transient Provider<ServiceManager> serviceManager;
+
+	@Inject
+	public ReadinessServlet(Provider<ServiceManager> serviceManager) {
+		this.serviceManager = serviceManager;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		boolean healthy = serviceManager.get().isHealthy();
+		resp.setStatus(healthy ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+		resp.setContentType("text/plain");
+		resp.getWriter().println(healthy ? "ready" : "starting");
+	}
+}
@@ -0,0 +1,249 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.script.ScriptException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+public class RenderCache {
+	private static final int ENTRY_OVERHEAD_BYTES = 128;
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private final Ticker ticker;
+	private final Cache<Key, Entry> cache;
+	private final ConcurrentMap<String, Set<Key>> taggedKeys = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+	private final AtomicLong cachedBytes = new AtomicLong();
+
+	public RenderCache(long maximumBytes) {
+		this(maximumBytes, Ticker.systemTicker());
+	}
+
+	public RenderCache(long maximumBytes, Ticker ticker) {
+		this.ticker = ticker;
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maximumBytes)
+				.weigher((Key key, Entry entry) -> entry.bytes).removalListener(this::removed).build();
+	}
+
+	public String render(String moduleName, Object props, long ttl, TimeUnit ttlUnit, Set<String> tags,
+			Renderer renderer) throws IOException, ScriptException {
+		Key key = new Key(moduleName, propsHash(props));
+		Entry entry = cache.getIfPresent(key);
+		if (entry != null) {
+			if (ticker.read() < entry.expiresAt) {
+				hits.incrementAndGet();
+				return entry.markup;
+			}
+			if (cache.asMap().remove(key, entry)) expirations.incrementAndGet();
+		}
+		AtomicReference<Entry> loaded = new AtomicReference<>();
+		try {
+			// concurrent misses on the same key wait for one render rather than each rendering it
+			entry = cache.get(key, () -> {
+				misses.incrementAndGet();
+				String markup = renderer.render();
+				Entry newEntry = new Entry(markup, ticker.read() + ttlUnit.toNanos(ttl), ImmutableSet.copyOf(tags));
+				cachedBytes.addAndGet(newEntry.bytes);
+				loaded.set(newEntry);
+				return newEntry;
+			});
+		} catch (ExecutionException e) {
+			Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+			Throwables.propagateIfInstanceOf(e.getCause(), ScriptException.class);
+			throw Throwables.propagate(e.getCause());
+		} catch (UncheckedExecutionException | ExecutionError e) {
+			throw Throwables.propagate(e.getCause());
+		}
+		if (entry != loaded.get()) {
+			hits.incrementAndGet();
+			return entry.markup;
+		}
+		// tag the entry only once it is in the cache, so its removal always finds the tags to clear
+		for (String tag : entry.tags) {
+			taggedKeys.compute(tag, (t, keys) -> {
+				Set<Key> tagged = keys != null ? keys : new HashSet<>();
+				tagged.add(key);
+				return tagged;
+			});
+		}
+		if (cache.asMap().get(key) != entry) untag(key, entry.tags);
+		return entry.markup;
+	}
+
+	public void invalidateTag(String tag) {
+		Set<Key> keys = taggedKeys.remove(tag);
+		if (keys == null) return;
+		for (Key key : keys) {
+			if (cache.asMap().remove(key) != null) invalidations.incrementAndGet();
+		}
+	}
+
+	public void invalidateModule(String moduleName) {
+		Iterator<Key> iter = cache.asMap().keySet().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().moduleName.equals(moduleName)) {
+				iter.remove();
+				invalidations.incrementAndGet();
+			}
+		}
+	}
+
+	@VisibleForTesting
+	int taggedCount() {
+		return taggedKeys.size();
+	}
+
+	public Stats stats() {
+		return new Stats(hits.get(), misses.get(), evictions.get(), expirations.get(), invalidations.get(),
+				cache.size(), cachedBytes.get());
+	}
+
+	private void removed(RemovalNotification<Key, Entry> notification) {
+		Entry entry = notification.getValue();
+		cachedBytes.addAndGet(-entry.bytes);
+		if (notification.wasEvicted()) evictions.incrementAndGet();
+		if (notification.getCause() != RemovalCause.REPLACED) untag(notification.getKey(), entry.tags);
+	}
+
+	private void untag(Key key, Set<String> tags) {
+		for (String tag : tags) {
+			taggedKeys.computeIfPresent(tag, (t, keys) -> {
+				keys.remove(key);
+				return keys.isEmpty() ? null : keys;
+			});
+		}
+	}
+
+	static HashCode propsHash(Object props) {
+		Hasher hasher = Hashing.sha256().newHasher();
+		hashNode(MAPPER.valueToTree(props), hasher);
+		return hasher.hash();
+	}
+
+	private static void hashNode(JsonNode node, Hasher hasher) {
+		if (node == null || node.isNull()) {
+			hasher.putByte((byte) 'n');
+		}
+		else if (node.isObject()) {
+			hasher.putByte((byte) '{');
+			for (String field : Ordering.natural().sortedCopy(ImmutableSet.copyOf(node.fieldNames()))) {
+				hasher.putString(field, StandardCharsets.UTF_8).putByte((byte) ':');
+				hashNode(node.get(field), hasher);
+			}
+			hasher.putByte((byte) '}');
+		}
+		else if (node.isArray()) {
+			hasher.putByte((byte) '[');
+			for (JsonNode element : node) {
+				hashNode(element, hasher);
+				hasher.putByte((byte) ',');
+			}
+			hasher.putByte((byte) ']');
+		}
+		else {
+			hasher.putByte((byte) (node.isTextual() ? 's' : 'v'));
+			hasher.putString(node.asText(), StandardCharsets.UTF_8).putByte((byte) 0);
+		}
+	}
+
+	public interface Renderer {
+		String render() throws IOException, ScriptException;
+	}
+
+	public static final class Stats {
+		public final long hits;
+		public final long misses;
+		public final long evictions;
+		public final long expirations;
+		public final long invalidations;
+		public final long entries;
+		public final long bytes;
+
+		private Stats(long hits, long misses, long evictions, long expirations, long invalidations, long entries,
+				long bytes) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.expirations = expirations;
+			this.invalidations = invalidations;
+			this.entries = entries;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d misses=%d evictions=%d expirations=%d invalidations=%d entries=%d bytes=%d",
+					hits, misses, evictions, expirations, invalidations, entries, bytes);
+		}
+	}
+
+	private static final class Key {
+		private final String moduleName;
+		private final HashCode propsHash;
+
+		Key(String moduleName, HashCode propsHash) {
+			this.moduleName = moduleName;
+			this.propsHash = propsHash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			return moduleName.equals(other.moduleName) && propsHash.equals(other.propsHash);
+		}
+
+		@Override
+		public int hashCode() {
+			return moduleName.hashCode() * 31 + propsHash.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return moduleName + "#" + propsHash;
+		}
+	}
+
+	private static final class Entry {
+		private final String markup;
+		private final long expiresAt;
+		private final Set<String> tags;
+		private final int bytes;
+
+		Entry(String markup, long expiresAt, Set<String> tags) {
+			this.markup = markup;
+			this.expiresAt = expiresAt;
+			this.tags = tags;
+			this.bytes = markup.length() * 2 + ENTRY_OVERHEAD_BYTES;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class RenderExecutor extends AbstractIdleService {
+	private final ThreadPoolExecutor executor;
+	private final RenderWatchdog watchdog;
+	private final int queueCapacity;
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAdder started = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder retired = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	public RenderExecutor(int threads, int queueCapacity, RenderWatchdog watchdog) {
+		checkArgument(threads > 0, "thread count must be positive: %s", threads);
+		checkArgument(queueCapacity > 0, "queue capacity must be positive: %s", queueCapacity);
+		this.watchdog = watchdog;
+		this.queueCapacity = queueCapacity;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new ThreadFactoryBuilder().setNameFormat("render-%d")
+						.setDaemon(true).build());
+	}
+
+	public void execute(Runnable task) throws RejectedExecutionException {
+		long submitted = System.nanoTime();
+		try {
+			executor.execute(() -> {
+				long waited = System.nanoTime() - submitted;
+				waitNanos.add(waited);
+				started.increment();
+				maxWaitNanos.accumulateAndGet(waited, Math::max);
+				try {
+					task.run();
+				} finally {
+					// let the worker die and be replaced rather than reuse a thread the watchdog stopped
+					if (watchdog.stoppedCurrentThread()) {
+						retired.increment();
+						throw new ThreadDeath();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw e;
+		}
+	}
+
+	public int queueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public int queueCapacity() {
+		return queueCapacity;
+	}
+
+	public int activeCount() {
+		return executor.getActiveCount();
+	}
+
+	public long startedCount() {
+		return started.sum();
+	}
+
+	public long rejectedCount() {
+		return rejected.sum();
+	}
+
+	public long retiredCount() {
+		return retired.sum();
+	}
+
+	public long totalWait(TimeUnit unit) {
+		return unit.convert(waitNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	public long maxWait(TimeUnit unit) {
+		return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	protected void startUp() throws Exception {
+		executor.prestartAllCoreThreads();
+	}
+
+	@Override
+	protected void shutDown() throws Exception {
+		executor.shutdown();
+		if (!executor.awaitTermination(5, TimeUnit.SECONDS)) executor.shutdownNow();
+	}
+}
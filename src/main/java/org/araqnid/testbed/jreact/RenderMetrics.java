@@ -0,0 +1,214 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+public class RenderMetrics {
+	private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+	private final Ticker ticker;
+	private final ConcurrentMap<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LongAdder> bytesRendered = new ConcurrentHashMap<>();
+
+	public RenderMetrics() {
+		this(Ticker.systemTicker());
+	}
+
+	public RenderMetrics(Ticker ticker) {
+		this.ticker = ticker;
+	}
+
+	public enum Operation {
+		MODULE_LOAD, MODULE_DEFINE, JSX_TRANSFORM, REACT_SCRIPT_LOAD, RENDER, BATCH_RENDER;
+
+		final String metricName = "jreact_" + name().toLowerCase() + "_seconds";
+	}
+
+	public Timer start(Operation operation, String moduleName) {
+		return new Timer(operation, moduleName, ticker.read());
+	}
+
+	public void record(Operation operation, String moduleName, long nanos, boolean failed) {
+		histogram(operation, moduleName).record(nanos, failed);
+	}
+
+	public void recordRendered(String moduleName, long bytes) {
+		bytesRendered.computeIfAbsent(moduleName, key -> new LongAdder()).add(bytes);
+	}
+
+	public void discard(Operation operation) {
+		histograms.keySet().removeIf(key -> key.operation == operation);
+		if (operation == Operation.RENDER) bytesRendered.clear();
+	}
+
+	public long count(Operation operation, String moduleName) {
+		LatencyHistogram histogram = histograms.get(new Key(operation, moduleName));
+		return histogram != null ? histogram.count.sum() : 0;
+	}
+
+	public long errors(Operation operation, String moduleName) {
+		LatencyHistogram histogram = histograms.get(new Key(operation, moduleName));
+		return histogram != null ? histogram.errors.sum() : 0;
+	}
+
+	public double quantile(Operation operation, String moduleName, double quantile, TimeUnit unit) {
+		LatencyHistogram histogram = histograms.get(new Key(operation, moduleName));
+		if (histogram == null) return Double.NaN;
+		return histogram.quantileNanos(quantile) / unit.toNanos(1);
+	}
+
+	public void writePrometheus(Writer writer) throws IOException {
+		SortedMap<Key, LatencyHistogram> sorted = new TreeMap<>(histograms);
+		Operation current = null;
+		for (Map.Entry<Key, LatencyHistogram> entry : sorted.entrySet()) {
+			Operation operation = entry.getKey().operation;
+			if (operation != current) {
+				writer.write("# TYPE " + operation.metricName + " summary\n");
+				current = operation;
+			}
+			String label = "module=\"" + escape(entry.getKey().moduleName) + "\"";
+			LatencyHistogram histogram = entry.getValue();
+			for (double quantile : QUANTILES) {
+				writer.write(operation.metricName + "{" + label + ",quantile=\"" + quantile + "\"} "
+						+ histogram.quantileNanos(quantile) / 1e9 + "\n");
+			}
+			writer.write(operation.metricName + "_sum{" + label + "} " + histogram.sumNanos.sum() / 1e9 + "\n");
+			writer.write(operation.metricName + "_count{" + label + "} " + histogram.count.sum() + "\n");
+		}
+		current = null;
+		for (Map.Entry<Key, LatencyHistogram> entry : sorted.entrySet()) {
+			Operation operation = entry.getKey().operation;
+			String metricName = "jreact_" + operation.name().toLowerCase() + "_errors_total";
+			if (operation != current) {
+				writer.write("# TYPE " + metricName + " counter\n");
+				current = operation;
+			}
+			writer.write(metricName + "{module=\"" + escape(entry.getKey().moduleName) + "\"} "
+					+ entry.getValue().errors.sum() + "\n");
+		}
+		if (!bytesRendered.isEmpty()) {
+			writer.write("# TYPE jreact_render_bytes_total counter\n");
+			for (Map.Entry<String, LongAdder> entry : new TreeMap<>(bytesRendered).entrySet()) {
+				writer.write("jreact_render_bytes_total{module=\"" + escape(entry.getKey()) + "\"} "
+						+ entry.getValue().sum() + "\n");
+			}
+		}
+	}
+
+	private LatencyHistogram histogram(Operation operation, String moduleName) {
+		return histograms.computeIfAbsent(new Key(operation, moduleName), key -> new LatencyHistogram());
+	}
+
+	private static String escape(String labelValue) {
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	public final class Timer {
+		private final Operation operation;
+		private final String moduleName;
+		private final long started;
+
+		private Timer(Operation operation, String moduleName, long started) {
+			this.operation = operation;
+			this.moduleName = moduleName;
+			this.started = started;
+		}
+
+		public void succeeded() {
+			record(operation, moduleName, ticker.read() - started, false);
+		}
+
+		public void failed() {
+			record(operation, moduleName, ticker.read() - started, true);
+		}
+	}
+
+	private static final class Key implements Comparable<Key> {
+		final Operation operation;
+		final String moduleName;
+
+		Key(Operation operation, String moduleName) {
+			this.operation = operation;
+			this.moduleName = moduleName;
+		}
+
+		@Override
+		public int compareTo(Key other) {
+			int byOperation = operation.compareTo(other.operation);
+			return byOperation != 0 ? byOperation : moduleName.compareTo(other.moduleName);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			return operation == other.operation && moduleName.equals(other.moduleName);
+		}
+
+		@Override
+		public int hashCode() {
+			return operation.hashCode() * 31 + moduleName.hashCode();
+		}
+	}
+
+	// four buckets per power of two from 1us to about a minute, so quantile estimates are within 19%
+	@VisibleForTesting
+	static final class LatencyHistogram {
+		private static final int BUCKETS_PER_DOUBLING = 4;
+		private static final int BUCKETS = 26 * BUCKETS_PER_DOUBLING;
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS + 1);
+		final LongAdder count = new LongAdder();
+		final LongAdder errors = new LongAdder();
+		final LongAdder sumNanos = new LongAdder();
+
+		void record(long nanos, boolean failed) {
+			buckets.incrementAndGet(bucketFor(nanos));
+			count.increment();
+			sumNanos.add(nanos);
+			if (failed) errors.increment();
+		}
+
+		double quantileNanos(double quantile) {
+			long[] counts = new long[buckets.length()];
+			long total = 0;
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = buckets.get(i);
+				total += counts[i];
+			}
+			if (total == 0) return Double.NaN;
+			double rank = quantile * total;
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] == 0) continue;
+				if (seen + counts[i] >= rank) {
+					double lower = i == 0 ? 0 : upperBoundNanos(i - 1);
+					double fraction = (rank - seen) / counts[i];
+					return lower + (upperBoundNanos(i) - lower) * fraction;
+				}
+				seen += counts[i];
+			}
+			return upperBoundNanos(counts.length - 1);
+		}
+
+		static int bucketFor(long nanos) {
+			double micros = nanos / 1000.0;
+			if (micros <= 1) return 0;
+			int bucket = (int) Math.ceil(Math.log(micros) / Math.log(2) * BUCKETS_PER_DOUBLING);
+			return Math.min(bucket, BUCKETS);
+		}
+
+		static double upperBoundNanos(int bucket) {
+			return 1000.0 * Math.pow(2, (double) bucket / BUCKETS_PER_DOUBLING);
+		}
+	}
+}
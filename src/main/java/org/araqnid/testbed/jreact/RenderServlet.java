@@ -0,0 +1,96 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class RenderServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+	private final transient RenderExecutor renderExecutor;
+	private final transient PageRenderer pageRenderer;
+	private final transient ClientBundler bundler;
+	private final List<String> stylesheets;
+	private final List<String> scripts;
+	private final long requestTimeoutMillis;
+	private final boolean flushHeadEarly;
+
+	@Inject
+	public RenderServlet(RenderExecutor renderExecutor, PageRenderer pageRenderer, ClientBundler bundler,
+			AssetManifest assetManifest,
+			@RenderingModule.PageStylesheets List<String> stylesheets,
+			@RenderingModule.PageScripts List<String> scripts,
+			@RenderingModule.RequestTimeout long requestTimeoutMillis,
+			@RenderingModule.FlushHeadEarly boolean flushHeadEarly) {
+		this.renderExecutor = renderExecutor;
+		this.pageRenderer = pageRenderer;
+		this.bundler = bundler;
+		this.requestTimeoutMillis = requestTimeoutMillis;
+		this.flushHeadEarly = flushHeadEarly;
+		this.stylesheets = ImmutableList.copyOf(Lists.transform(stylesheets, assetManifest::url));
+		this.scripts = ImmutableList.copyOf(Lists.transform(scripts, assetManifest::url));
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		Optional<String> moduleName = pageRenderer.resolve(Optional.ofNullable(req.getPathInfo()).orElse(""));
+		if (!moduleName.isPresent()) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		Map<String, String> props = props(req);
+		resp.setContentType("text/html; charset=utf-8");
+		AsyncContext asyncContext = req.startAsync();
+		asyncContext.setTimeout(requestTimeoutMillis);
+		String page = req.getPathInfo().substring(1);
+		AsyncPageWriter writer = new AsyncPageWriter(asyncContext);
+		try {
+			renderExecutor.execute(() -> {
+				try {
+					String markup = pageRenderer.render(moduleName.get(), props,
+							e -> writer.renderFailed(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e));
+					// build the client bundle here, off the request threads, so the page can link its fingerprinted URL
+					ClientBundler.Bundle bundle = bundler.bundle(moduleName.get());
+					List<String> pageScripts = ImmutableList.<String> builder().addAll(scripts)
+							.add("/bundle/" + page + "." + bundle.fingerprint() + ".js").build();
+					writer.markupReady(new PageShell(page, stylesheets, pageScripts), markup);
+				} catch (Throwable t) {
+					writer.renderFailed(failureStatus(t), t);
+					Throwables.propagateIfInstanceOf(t, Error.class);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			asyncContext.complete();
+			return;
+		}
+		writer.start();
+		if (flushHeadEarly) writer.headReady(new PageShell(page, stylesheets, scripts).head());
+	}
+
+	private static int failureStatus(Throwable t) {
+		return Throwables.getCausalChain(t).stream().anyMatch(TimeoutException.class::isInstance)
+				? HttpServletResponse.SC_SERVICE_UNAVAILABLE : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+	}
+
+	private static Map<String, String> props(HttpServletRequest req) {
+		ImmutableMap.Builder<String, String> props = ImmutableMap.builder();
+		for (Map.Entry<String, String[]> param : req.getParameterMap().entrySet()) {
+			if (param.getValue().length > 0) props.put(param.getKey(), param.getValue()[0]);
+		}
+		return props.build();
+	}
+}
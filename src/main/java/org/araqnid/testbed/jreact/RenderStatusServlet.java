@@ -0,0 +1,68 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+import static java.util.stream.Collectors.toList;
+
+public class RenderStatusServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private final transient RenderExecutor renderExecutor;
+	private final transient JSModuleContainerPool containerPool;
+	private final transient RenderWatchdog watchdog;
+	private final transient WarmupService warmup;
+	private final transient ComponentCache componentCache;
+
+	@Inject
+	public RenderStatusServlet(RenderExecutor renderExecutor, JSModuleContainerPool containerPool,
+			RenderWatchdog watchdog, WarmupService warmup, ComponentCache componentCache) {
+		this.renderExecutor = renderExecutor;
+		this.containerPool = containerPool;
+		this.watchdog = watchdog;
+		this.warmup = warmup;
+		this.componentCache = componentCache;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		long started = renderExecutor.startedCount();
+		long totalWaitMicros = renderExecutor.totalWait(TimeUnit.MICROSECONDS);
+		ComponentCache.Stats componentCacheStats = componentCache.stats();
+		resp.setContentType("application/json");
+		MAPPER.writeValue(resp.getOutputStream(), ImmutableMap.builder()
+				.put("queueDepth", renderExecutor.queueDepth())
+				.put("queueCapacity", renderExecutor.queueCapacity())
+				.put("activeRenders", renderExecutor.activeCount())
+				.put("startedRenders", started)
+				.put("rejectedRenders", renderExecutor.rejectedCount())
+				.put("retiredRenderThreads", renderExecutor.retiredCount())
+				.put("meanWaitMillis", started > 0 ? totalWaitMicros / 1000.0 / started : 0.0)
+				.put("maxWaitMillis", renderExecutor.maxWait(TimeUnit.MICROSECONDS) / 1000.0)
+				.put("containersAvailable", containerPool.available())
+				.put("containersTotal", containerPool.size())
+				.put("containersQuarantined", containerPool.quarantinedCount())
+				.put("warmupMillis", warmup.warmupMillis())
+				.put("warmupRounds", warmup.rounds())
+				.put("componentCacheHits", componentCacheStats.hits)
+				.put("componentCacheMisses", componentCacheStats.misses)
+				.put("componentCacheBypasses", componentCacheStats.bypasses)
+				.put("componentCacheEvictions", componentCacheStats.evictions)
+				.put("componentCacheBytes", componentCacheStats.bytes)
+				.put("renderTimeouts", watchdog.timeoutCount())
+				.put("recentTimeouts", watchdog.recentIncidents().stream().map(incident -> ImmutableMap.of(
+						"module", incident.moduleName,
+						"props", incident.props,
+						"timeoutMillis", incident.timeoutMillis,
+						"occurred", incident.occurred.toString())).collect(toList()))
+				.build());
+	}
+}
@@ -0,0 +1,229 @@
+package org.araqnid.testbed.jreact;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.EvictingQueue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class RenderWatchdog extends AbstractIdleService {
+	private static final Logger LOG = LoggerFactory.getLogger(RenderWatchdog.class);
+	private static final int MAX_PROPS_LENGTH = 200;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setNameFormat("render-watchdog").setDaemon(true).build());
+	private final EvictingQueue<Incident> incidents = EvictingQueue.create(20);
+	private final LongAdder timeouts = new LongAdder();
+	private final ThreadLocal<Boolean> stopped = new ThreadLocal<>();
+
+	public <T> T call(Callable<T> render, long timeout, TimeUnit unit, String moduleName, Object props)
+			throws Exception {
+		return call(render, timeout, unit, moduleName, props, e -> {
+		});
+	}
+
+	// onTimeout runs on the watchdog thread as soon as the deadline passes, so the caller can give up on the render
+	// without waiting for this thread to unwind
+	public <T> T call(Callable<T> render, long timeout, TimeUnit unit, String moduleName, Object props,
+			Consumer<? super RenderTimeoutException> onTimeout) throws Exception {
+		Watch watch = new Watch(Thread.currentThread(), moduleName, summarise(props), unit.toMillis(timeout),
+				onTimeout);
+		T result = null;
+		Exception failure = null;
+		ThreadDeath death = null;
+		try {
+			watch.timer = scheduler.schedule(watch::expire, timeout, unit);
+			result = render.call();
+		} catch (Exception e) {
+			failure = e;
+		} catch (ThreadDeath e) {
+			death = e;
+		}
+		// a re-issued stop can land anywhere until the watch knows the thread has left the script, so nothing between
+		// the render and leaving the watch may take a lock
+		leave(watch);
+		try {
+			if (watch.expired()) throw watch.timeout;
+			if (death != null) throw death;
+			if (failure != null) throw failure;
+			return result;
+		} finally {
+			if (watch.timer != null) watch.timer.cancel(false);
+			if (watch.expired()) {
+				Thread.interrupted();
+				stopped.set(true);
+			}
+		}
+	}
+
+	// a thread that had a render stopped has had a ThreadDeath thrown through whatever it was doing, so it should not
+	// be trusted with more work
+	public boolean stoppedCurrentThread() {
+		return stopped.get() != null;
+	}
+
+	public long timeoutCount() {
+		return timeouts.sum();
+	}
+
+	public List<Incident> recentIncidents() {
+		synchronized (incidents) {
+			return ImmutableList.copyOf(incidents);
+		}
+	}
+
+	@Override
+	protected void startUp() throws Exception {
+	}
+
+	@Override
+	protected void shutDown() throws Exception {
+		scheduler.shutdownNow();
+	}
+
+	// stops issued before the watch was acknowledged can still arrive while acknowledging it
+	private static void leave(Watch watch) {
+		while (true) {
+			try {
+				watch.leave();
+				return;
+			} catch (ThreadDeath e) {
+				// delivered late; acknowledge again
+			}
+		}
+	}
+
+	private static String summarise(Object props) {
+		String text = String.valueOf(props);
+		return text.length() <= MAX_PROPS_LENGTH ? text : text.substring(0, MAX_PROPS_LENGTH) + "...";
+	}
+
+	private enum WatchState {
+		ARMED, DISARMED, EXPIRED
+	}
+
+	private final class Watch {
+		private final Thread thread;
+		private final String moduleName;
+		private final String props;
+		private final long timeoutMillis;
+		private final Consumer<? super RenderTimeoutException> onTimeout;
+		private WatchState state = WatchState.ARMED;
+		private volatile boolean acknowledged;
+		private boolean settled;
+		private volatile ScheduledFuture<?> timer;
+		private ScheduledFuture<?> restopper;
+		private volatile RenderTimeoutException timeout;
+
+		Watch(Thread thread, String moduleName, String props, long timeoutMillis,
+				Consumer<? super RenderTimeoutException> onTimeout) {
+			this.thread = thread;
+			this.moduleName = moduleName;
+			this.props = props;
+			this.timeoutMillis = timeoutMillis;
+			this.onTimeout = onTimeout;
+		}
+
+		synchronized boolean expired() {
+			return state == WatchState.EXPIRED;
+		}
+
+		// the thread has left the script, so the watchdog can stop re-issuing stops; if the watch expired, wait here
+		// until the ones already issued have been delivered rather than let them land further up the stack
+		void leave() {
+			acknowledged = true;
+			synchronized (this) {
+				if (state == WatchState.ARMED) {
+					state = WatchState.DISARMED;
+					return;
+				}
+				while (state == WatchState.EXPIRED && !settled && !scheduler.isShutdown()) {
+					try {
+						wait(100);
+					} catch (InterruptedException | ThreadDeath e) {
+						// a stop issued before the acknowledgement
+					}
+				}
+			}
+		}
+
+		@SuppressWarnings("deprecation")
+		void expire() {
+			RenderTimeoutException e = new RenderTimeoutException(moduleName, timeoutMillis);
+			synchronized (this) {
+				if (state != WatchState.ARMED) return;
+				state = WatchState.EXPIRED;
+				timeout = e;
+				// Nashorn never polls for interrupts, so stopping the thread is the only way to break out of a
+				// runaway script. A script that catches everything can swallow a ThreadDeath, so keep stopping the
+				// thread until it shows it has left the script.
+				thread.stop();
+				restopper = scheduler.scheduleWithFixedDelay(this::restop, 1, 1, TimeUnit.MILLISECONDS);
+			}
+			timeouts.increment();
+			Incident incident = new Incident(moduleName, props, timeoutMillis, Instant.now());
+			synchronized (incidents) {
+				incidents.add(incident);
+			}
+			LOG.warn("Render of {} exceeded {}ms and was stopped; props: {}", moduleName, timeoutMillis, props);
+			try {
+				onTimeout.accept(e);
+			} catch (RuntimeException ex) {
+				LOG.error("Failed handling timeout of {}", moduleName, ex);
+			}
+		}
+
+		@SuppressWarnings("deprecation")
+		private void restop() {
+			// not under the lock: the render thread must be able to acknowledge while a stop is being issued
+			if (!acknowledged && thread.isAlive()) {
+				thread.stop();
+				return;
+			}
+			synchronized (this) {
+				restopper.cancel(false);
+			}
+			// taking a stack trace needs a safepoint, so any stop still queued in the VM has been delivered by the time
+			// it returns
+			thread.getStackTrace();
+			synchronized (this) {
+				settled = true;
+				notifyAll();
+			}
+		}
+	}
+
+	public static final class Incident {
+		public final String moduleName;
+		public final String props;
+		public final long timeoutMillis;
+		public final Instant occurred;
+
+		Incident(String moduleName, String props, long timeoutMillis, Instant occurred) {
+			this.moduleName = moduleName;
+			this.props = props;
+			this.timeoutMillis = timeoutMillis;
+			this.occurred = occurred;
+		}
+	}
+
+	public static final class RenderTimeoutException extends TimeoutException {
+		private static final long serialVersionUID = 1L;
+
+		RenderTimeoutException(String moduleName, long timeoutMillis) {
+			super("Render of " + moduleName + " did not complete within " + timeoutMillis + "ms");
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Qualifier;
+import javax.inject.Singleton;
+
+import org.araqnid.testbed.jreact.AppConfigModule.Managed;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.Service;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.multibindings.Multibinder;
+
+public class RenderingModule extends AbstractModule {
+	@Override
+	protected void configure() {
+		managedServices().addBinding().to(JSModuleContainerPool.class);
+		managedServices().addBinding().to(RenderExecutor.class);
+		managedServices().addBinding().to(RenderWatchdog.class);
+		managedServices().addBinding().to(ModuleReloader.class);
+		managedServices().addBinding().to(WarmupService.class);
+		bind(RenderWatchdog.class).in(Singleton.class);
+		bind(RenderMetrics.class).in(Singleton.class);
+	}
+
+	@Provides
+	@Singleton
+	public JSModuleContainerPool containerPool(@ModuleRoot String moduleRoot,
+			@ModuleSourceDirectory String moduleSourceDirectory,
+			@CodeCacheDirectory String codeCacheDirectory, @JSXCacheDirectory String jsxCacheDirectory,
+			@DevMode boolean devMode, @PoolSize int poolSize, @PreloadModules List<String> preloadModules,
+			@AcquireTimeout long acquireTimeoutMillis, @ConsoleRateLimit int consoleRateLimit, RenderMetrics metrics,
+			ComponentCache componentCache) {
+		JSModuleContainer.Builder builder = JSModuleContainer.builder(moduleRoot).runtimeJsxTransform(devMode)
+				.preferSourceJsx(devMode)
+				.consoleRateLimit(consoleRateLimit).metrics(metrics).componentCache(componentCache)
+				.loaderExecutor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+						new ThreadFactoryBuilder().setNameFormat("js-loader-%d").setDaemon(true).build()));
+		if (devMode && !moduleSourceDirectory.isEmpty()) {
+			builder.sourceDirectory(Paths.get(moduleSourceDirectory));
+		}
+		if (!codeCacheDirectory.isEmpty()) {
+			builder.persistentCodeCache(Paths.get(codeCacheDirectory));
+		}
+		if (!jsxCacheDirectory.isEmpty()) {
+			builder.jsxTransformCache(new JSXTransformCache(Paths.get(jsxCacheDirectory)));
+		}
+		return new JSModuleContainerPool(builder::build, poolSize, preloadModules, acquireTimeoutMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Provides
+	@Singleton
+	public RenderCache renderCache(@RenderCacheBytes long maximumBytes) {
+		return new RenderCache(maximumBytes);
+	}
+
+	@Provides
+	@Singleton
+	public ComponentCache componentCache(@ComponentCacheBytes long maximumBytes) {
+		return new ComponentCache(maximumBytes);
+	}
+
+	@Provides
+	@Singleton
+	public RenderExecutor renderExecutor(@RenderThreads int threads, @RenderQueueCapacity int queueCapacity,
+			RenderWatchdog watchdog) {
+		return new RenderExecutor(threads, queueCapacity, watchdog);
+	}
+
+	@Provides
+	@Singleton
+	public PageRenderer pageRenderer(JSModuleContainerPool pool, RenderCache cache, RenderWatchdog watchdog,
+			@ModuleRoot String moduleRoot, @RenderCacheTtl long cacheTtlSeconds,
+			@RenderTimeout long renderTimeoutMillis) {
+		return new PageRenderer(pool, cache, watchdog, moduleRoot, cacheTtlSeconds, renderTimeoutMillis);
+	}
+
+	@Provides
+	@Singleton
+	public ClientBundler clientBundler(JSModuleContainerPool pool) {
+		return new ClientBundler(pool);
+	}
+
+	@Provides
+	@Singleton
+	public ModuleReloader moduleReloader(JSModuleContainerPool pool, RenderCache renderCache,
+			ComponentCache componentCache, ClientBundler bundler, @ModuleRoot String moduleRoot,
+			@ModuleSourceDirectory String moduleSourceDirectory, @DevMode boolean devMode) {
+		Optional<Path> sourceDirectory = moduleSourceDirectory.isEmpty() ? Optional.empty() : Optional.of(Paths
+				.get(moduleSourceDirectory));
+		return new ModuleReloader(pool, renderCache, componentCache, bundler, moduleRoot, sourceDirectory, devMode);
+	}
+
+	@Provides
+	@PreloadModules
+	public List<String> preloadModules(@PreloadModules String preloadModules) {
+		return ImmutableList.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(preloadModules));
+	}
+
+	@Provides
+	@PageStylesheets
+	public List<String> pageStylesheets(@PageStylesheets String pageStylesheets) {
+		return ImmutableList.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(pageStylesheets));
+	}
+
+	@Provides
+	@PageScripts
+	public List<String> pageScripts(@PageScripts String pageScripts) {
+		return ImmutableList.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(pageScripts));
+	}
+
+	@Provides
+	@Singleton
+	public WarmupService warmupService(JSModuleContainerPool pool, RenderMetrics metrics, ClientBundler bundler,
+			@WarmupFixtures String fixturesResource, @WarmupMaxRounds int maxRounds) throws IOException {
+		List<WarmupService.Fixture> fixtures = fixturesResource.isEmpty() ? ImmutableList.of() : WarmupService
+				.readFixtures(Resources.getResource(fixturesResource));
+		return new WarmupService(pool, metrics, bundler, fixtures, maxRounds);
+	}
+
+	private Multibinder<Service> managedServices() {
+		return Multibinder.newSetBinder(binder(), Service.class, Managed.class);
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface ModuleRoot {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface ModuleSourceDirectory {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface CodeCacheDirectory {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface JSXCacheDirectory {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface DevMode {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface PoolSize {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface PreloadModules {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface AcquireTimeout {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface RenderCacheBytes {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface RenderCacheTtl {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface ComponentCacheBytes {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface RenderThreads {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface RenderQueueCapacity {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface RenderTimeout {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface RequestTimeout {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface FlushHeadEarly {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface ConsoleRateLimit {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface PageStylesheets {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface PageScripts {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface WarmupFixtures {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER, ElementType.METHOD, ElementType.FIELD })
+	@Qualifier
+	@Documented
+	public @interface WarmupMaxRounds {
+	}
+}
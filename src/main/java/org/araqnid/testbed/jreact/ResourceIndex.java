@@ -0,0 +1,140 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jetty.http.MimeTypes;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import com.google.common.reflect.ClassPath;
+import com.google.common.reflect.ClassPath.ResourceInfo;
+
+final class ResourceIndex {
+	private static final Splitter PATH_SPLITTER = Splitter.on('/').omitEmptyStrings();
+	private static final MimeTypes MIME_TYPES = new MimeTypes();
+	private static final int MIN_GZIP_LENGTH = 256;
+	private final Entry root;
+
+	private ResourceIndex(Entry root) {
+		this.root = root;
+	}
+
+	static ResourceIndex build(ClassLoader classLoader, ClassPath classPath, String rootPath) throws IOException {
+		String prefix = rootPath.endsWith("/") ? rootPath : rootPath + "/";
+		Node root = new Node();
+		for (ResourceInfo resource : classPath.getResources()) {
+			String name = resource.getResourceName();
+			if (!name.startsWith(prefix)) continue;
+			Node node = root;
+			for (String segment : PATH_SPLITTER.split(name.substring(prefix.length()))) {
+				node = node.children.computeIfAbsent(segment, key -> new Node());
+			}
+			if (node.url == null && node.children.isEmpty()) node.url = classLoader.getResource(name);
+		}
+		if (root.children.isEmpty())
+			return new ResourceIndex(new Entry(null, false, ImmutableSortedMap.of(), null, null, null, null));
+		return new ResourceIndex(root.freeze(classLoader, prefix));
+	}
+
+	Optional<Entry> lookup(String relativePath) {
+		Entry entry = root;
+		for (String segment : PATH_SPLITTER.split(relativePath)) {
+			entry = entry.children.get(segment);
+			if (entry == null) return Optional.empty();
+		}
+		return Optional.of(entry);
+	}
+
+	void visitFiles(Entry from, String path, BiConsumer<String, Entry> visitor) {
+		if (!from.directory) {
+			if (from.content != null) visitor.accept(path, from);
+			return;
+		}
+		for (Map.Entry<String, Entry> child : from.children.entrySet()) {
+			visitFiles(child.getValue(), path.isEmpty() ? child.getKey() : path + "/" + child.getKey(), visitor);
+		}
+	}
+
+	static final class Entry {
+		final URL url;
+		final boolean directory;
+		final ImmutableSortedMap<String, Entry> children;
+		final String contentType;
+		final HashCode contentHash;
+		final ByteBuffer content;
+		final ByteBuffer gzipContent;
+
+		private Entry(URL url, boolean directory, ImmutableSortedMap<String, Entry> children, String contentType,
+				HashCode contentHash, ByteBuffer content, ByteBuffer gzipContent) {
+			this.url = url;
+			this.directory = directory;
+			this.children = children;
+			this.contentType = contentType;
+			this.contentHash = contentHash;
+			this.content = content;
+			this.gzipContent = gzipContent;
+		}
+
+		long length() {
+			return content != null ? content.remaining() : -1;
+		}
+	}
+
+	private static final class Node {
+		final Map<String, Node> children = new TreeMap<>();
+		URL url;
+
+		Entry freeze(ClassLoader classLoader, String name) throws IOException {
+			if (children.isEmpty()) {
+				byte[] bytes = Resources.toByteArray(url);
+				String contentType = MIME_TYPES.getMimeByExtension(name);
+				ByteBuffer gzipContent = null;
+				if (compressible(contentType) && bytes.length >= MIN_GZIP_LENGTH) {
+					byte[] gzipped = gzip(bytes);
+					if (gzipped.length < bytes.length * 0.9) gzipContent = directBuffer(gzipped);
+				}
+				return new Entry(url, false, ImmutableSortedMap.of(), contentType, Hashing.sha1().hashBytes(bytes),
+						directBuffer(bytes), gzipContent);
+			}
+			ImmutableSortedMap.Builder<String, Entry> frozen = ImmutableSortedMap.naturalOrder();
+			for (Map.Entry<String, Node> child : children.entrySet()) {
+				String childName = name + child.getKey();
+				Node childNode = child.getValue();
+				frozen.put(child.getKey(), childNode.freeze(classLoader, childNode.children.isEmpty() ? childName
+						: childName + "/"));
+			}
+			return new Entry(classLoader.getResource(name), true, frozen.build(), null, null, null, null);
+		}
+	}
+
+	private static boolean compressible(String contentType) {
+		return contentType != null && (contentType.startsWith("text/") || contentType.contains("javascript")
+				|| contentType.contains("json") || contentType.contains("xml"));
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 2);
+		try (OutputStream output = new GZIPOutputStream(buffer)) {
+			output.write(bytes);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static ByteBuffer directBuffer(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes).flip();
+		return buffer.asReadOnlyBuffer();
+	}
+}
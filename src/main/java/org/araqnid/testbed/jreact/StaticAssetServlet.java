@@ -0,0 +1,164 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.util.resource.Resource;
+
+import com.google.common.base.Splitter;
+
+public class StaticAssetServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+	private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+	private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+	private final transient Resource webappRoot;
+	private final transient AssetManifest manifest;
+
+	@Inject
+	public StaticAssetServlet(@Named("webappRoot") Resource webappRoot, AssetManifest manifest) {
+		this.webappRoot = webappRoot;
+		this.manifest = manifest;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		serve(req, resp, true);
+	}
+
+	@Override
+	protected void doHead(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		serve(req, resp, false);
+	}
+
+	private void serve(HttpServletRequest req, HttpServletResponse resp, boolean sendBody) throws IOException {
+		String path = Optional.ofNullable(req.getPathInfo()).orElse("/");
+		Optional<String> fingerprinted = manifest.resolveFingerprinted(path);
+		Optional<EmbeddedResource> found = resolve(fingerprinted.orElse(path));
+		if (!found.isPresent()) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		EmbeddedResource resource = found.get();
+		resp.setHeader("Cache-Control", fingerprinted.isPresent() ? IMMUTABLE : "no-cache");
+		String etag = resource.strongETag();
+		// the compressed variant is a different representation, so it needs its own strong validator
+		String gzipETag = gzipETag(etag);
+		Optional<ByteBuffer> gzipContent = resource.gzipContent();
+		boolean gzip = gzipContent.isPresent() && acceptsGzip(req.getHeader("Accept-Encoding"));
+		resp.setHeader("ETag", gzip ? gzipETag : etag);
+		resp.setHeader("Accept-Ranges", "bytes");
+		resp.setHeader("Vary", "Accept-Encoding");
+		resource.contentType().ifPresent(resp::setContentType);
+		if (matches(req.getHeader("If-None-Match"), etag, gzipETag)) {
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		ByteBuffer content = resource.content().get();
+		String range = req.getHeader("Range");
+		String ifRange = req.getHeader("If-Range");
+		if (range != null && (ifRange == null || ifRange.equals(etag) || ifRange.equals(gzipETag))) {
+			Matcher matcher = SINGLE_RANGE.matcher(range);
+			if (matcher.matches()) {
+				int length = content.remaining();
+				long start;
+				long end;
+				if (matcher.group(1).isEmpty()) {
+					if (matcher.group(2).isEmpty()) start = length;
+					else start = Math.max(0, length - bytePosition(matcher.group(2)));
+					end = length - 1;
+				}
+				else {
+					start = bytePosition(matcher.group(1));
+					end = matcher.group(2).isEmpty() ? length - 1 : Math.min(length - 1, bytePosition(matcher
+							.group(2)));
+				}
+				if (start >= length || end < start) {
+					resp.setHeader("Content-Range", "bytes */" + length);
+					resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					return;
+				}
+				// ranges are always taken from the identity content
+				resp.setHeader("ETag", etag);
+				resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				resp.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+				content.position((int) start);
+				content.limit((int) end + 1);
+				send(resp, content, sendBody);
+				return;
+			}
+		}
+
+		if (gzip) {
+			resp.setHeader("Content-Encoding", "gzip");
+			send(resp, gzipContent.get(), sendBody);
+		}
+		else {
+			send(resp, content, sendBody);
+		}
+	}
+
+	private Optional<EmbeddedResource> resolve(String path) throws IOException {
+		EmbeddedResource resource = (EmbeddedResource) webappRoot.addPath(path);
+		if (resource.isDirectory()) resource = (EmbeddedResource) resource.addPath("index.html");
+		if (!resource.exists() || resource.isDirectory()) return Optional.empty();
+		return Optional.of(resource);
+	}
+
+	private static void send(HttpServletResponse resp, ByteBuffer content, boolean sendBody) throws IOException {
+		resp.setContentLength(content.remaining());
+		if (!sendBody) return;
+		OutputStream output = resp.getOutputStream();
+		if (output instanceof HttpOutput) {
+			// hands the read-only direct buffer straight to the connector, without copying through a byte[]
+			((HttpOutput) output).sendContent(content);
+		}
+		else {
+			Channels.newChannel(output).write(content);
+		}
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag, String gzipETag) {
+		if (ifNoneMatch == null) return false;
+		for (String candidate : Splitter.on(',').trimResults().split(ifNoneMatch)) {
+			if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzipETag)) return true;
+		}
+		return false;
+	}
+
+	// same suffix as Jetty uses for its own precompressed content
+	private static String gzipETag(String etag) {
+		return etag.substring(0, etag.length() - 1) + "--gzip\"";
+	}
+
+	// the range pattern only admits digits, so parsing can only fail on a position too large for a long, which is
+	// past the end of any resource anyway
+	private static long bytePosition(String digits) {
+		try {
+			return Long.parseLong(digits);
+		} catch (NumberFormatException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) return false;
+		for (String coding : Splitter.on(',').trimResults().split(acceptEncoding)) {
+			if (coding.equals("gzip") || coding.startsWith("gzip;") && !coding.replace(" ", "").endsWith("q=0"))
+				return true;
+		}
+		return false;
+	}
+}
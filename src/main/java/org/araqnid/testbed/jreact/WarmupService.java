@@ -0,0 +1,125 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+public class WarmupService extends AbstractIdleService {
+	private static final Logger LOG = LoggerFactory.getLogger(WarmupService.class);
+	private static final double STABLE_TOLERANCE = 0.1;
+	private static final int STABLE_ROUNDS = 3;
+	private static final long ACQUIRE_TIMEOUT_SECONDS = 60;
+	private final JSModuleContainerPool pool;
+	private final RenderMetrics metrics;
+	private final ClientBundler bundler;
+	private final List<Fixture> fixtures;
+	private final int maxRounds;
+	private volatile long warmupMillis = -1;
+	private volatile int rounds;
+
+	public WarmupService(JSModuleContainerPool pool, RenderMetrics metrics, ClientBundler bundler,
+			List<Fixture> fixtures, int maxRounds) {
+		this.pool = pool;
+		this.metrics = metrics;
+		this.bundler = bundler;
+		this.fixtures = ImmutableList.copyOf(fixtures);
+		this.maxRounds = maxRounds;
+	}
+
+	public long warmupMillis() {
+		return warmupMillis;
+	}
+
+	public int rounds() {
+		return rounds;
+	}
+
+	@Override
+	protected void startUp() throws Exception {
+		pool.awaitRunning();
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		// hold every container, so that each one gets primed and nothing else can render meanwhile
+		List<JSModuleContainerPool.Lease> leases = Lists.newArrayListWithCapacity(pool.size());
+		try {
+			for (int i = 0; i < pool.size(); i++) {
+				leases.add(pool.acquire(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+			}
+			for (JSModuleContainerPool.Lease lease : leases) {
+				for (Fixture fixture : fixtures) {
+					lease.container().require(fixture.moduleName);
+				}
+			}
+			for (Fixture fixture : fixtures) {
+				bundler.prebuild(leases.get(0).container(), fixture.moduleName);
+			}
+			double previousMeanMicros = Double.NaN;
+			int stableRounds = 0;
+			while (!fixtures.isEmpty() && rounds < maxRounds && stableRounds < STABLE_ROUNDS) {
+				double meanMicros = renderRound(leases);
+				++rounds;
+				if (Math.abs(meanMicros - previousMeanMicros) <= previousMeanMicros * STABLE_TOLERANCE) ++stableRounds;
+				else stableRounds = 0;
+				previousMeanMicros = meanMicros;
+			}
+			// warm-up renders would otherwise dominate the latency figures for some time
+			metrics.discard(RenderMetrics.Operation.RENDER);
+			warmupMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			LOG.info("Warmed up {} containers with {} fixtures in {} rounds, {}; mean render {}us", leases.size(),
+					fixtures.size(), rounds, stopwatch, String.format("%.1f", previousMeanMicros));
+		} finally {
+			leases.forEach(JSModuleContainerPool.Lease::close);
+		}
+	}
+
+	@Override
+	protected void shutDown() throws Exception {
+	}
+
+	private double renderRound(List<JSModuleContainerPool.Lease> leases) throws Exception {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		for (JSModuleContainerPool.Lease lease : leases) {
+			for (Fixture fixture : fixtures) {
+				lease.container().renderToString(fixture.moduleName, fixture.props);
+			}
+		}
+		return stopwatch.elapsed(TimeUnit.NANOSECONDS) / 1000.0 / (leases.size() * fixtures.size());
+	}
+
+	public static final class Fixture {
+		public final String moduleName;
+		public final Object props;
+
+		public Fixture(String moduleName, Object props) {
+			this.moduleName = moduleName;
+			this.props = props;
+		}
+
+		@Override
+		public String toString() {
+			return moduleName + " " + props;
+		}
+	}
+
+	public static List<Fixture> readFixtures(URL resource) throws IOException {
+		List<Map<String, Object>> entries = new ObjectMapper().readValue(resource,
+				new TypeReference<List<Map<String, Object>>>() {
+				});
+		ImmutableList.Builder<Fixture> fixtures = ImmutableList.builder();
+		for (Map<String, Object> entry : entries) {
+			fixtures.add(new Fixture((String) entry.get("module"), entry.get("props")));
+		}
+		return fixtures.build();
+	}
+}
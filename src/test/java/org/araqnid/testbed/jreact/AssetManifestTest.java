@@ -0,0 +1,55 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import com.google.common.reflect.ClassPath;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AssetManifestTest {
+	private final AssetManifest manifest;
+
+	public AssetManifestTest() throws Exception {
+		ClassLoader classLoader = getClass().getClassLoader();
+		manifest = new AssetManifest(new EmbeddedResource(classLoader, "testweb", ClassPath.from(classLoader)));
+	}
+
+	@Test
+	public void url_includes_content_fingerprint_before_extension() throws Exception {
+		assertThat(manifest.url("style.css"), equalTo("/style." + fingerprint("testweb/style.css") + ".css"));
+		assertThat(manifest.url("/scripts/app.js"),
+				equalTo("/scripts/app." + fingerprint("testweb/scripts/app.js") + ".js"));
+	}
+
+	@Test
+	public void fingerprinted_path_resolves_to_original() throws Exception {
+		assertThat(manifest.resolveFingerprinted(manifest.url("scripts/app.js")),
+				equalTo(Optional.of("scripts/app.js")));
+	}
+
+	@Test
+	public void stale_or_plain_path_does_not_resolve() throws Exception {
+		assertThat(manifest.resolveFingerprinted("/style.000000000000.css"), equalTo(Optional.empty()));
+		assertThat(manifest.resolveFingerprinted("/style.css"), equalTo(Optional.empty()));
+	}
+
+	@Test
+	public void manifest_lists_every_file() throws Exception {
+		assertThat(manifest.entries().keySet().toString(), equalTo("[large.css, scripts/app.js, style.css]"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknown_asset_is_rejected() throws Exception {
+		manifest.url("missing.css");
+	}
+
+	private static String fingerprint(String resourceName) throws Exception {
+		return Resources.asByteSource(Resources.getResource(resourceName)).hash(Hashing.sha1()).toString()
+				.substring(0, 12);
+	}
+}
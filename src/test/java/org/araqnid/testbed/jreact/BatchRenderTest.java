@@ -0,0 +1,96 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BatchRenderTest {
+	private static final Logger LOG = LoggerFactory.getLogger(BatchRenderTest.class);
+	private final RenderMetrics metrics = new RenderMetrics();
+	private final JSModuleContainer container = JSModuleContainer.builder("test").metrics(metrics).build();
+
+	@Test
+	public void renders_markup_for_each_props_in_order() throws Exception {
+		List<String> markup = container.renderAllToStaticMarkup("jsx!Component", ImmutableList.of(
+				ImmutableMap.of("name", "First"), ImmutableMap.of("name", "Second")));
+		assertThat(markup, contains("<div>First content</div>", "<div>Second content</div>"));
+		assertThat(metrics.count(RenderMetrics.Operation.BATCH_RENDER, "jsx!Component"), equalTo(1L));
+	}
+
+	@Test
+	public void batch_matches_individual_renders() throws Exception {
+		List<ImmutableMap<String, String>> propsList = ImmutableList.of(ImmutableMap.of("name", "First"),
+				ImmutableMap.of("name", "Second"));
+		assertThat(container.renderAllToStaticMarkup("jsx!Component", propsList), contains(
+				container.renderToStaticMarkup("jsx!Component", propsList.get(0)),
+				container.renderToStaticMarkup("jsx!Component", propsList.get(1))));
+	}
+
+	@Test
+	public void renders_to_string_with_checksums() throws Exception {
+		List<String> markup = container.renderAllToString("jsx!Component", ImmutableList.of(ImmutableMap.of("name",
+				"First")));
+		assertThat(markup.get(0), both(containsString("data-react-checksum")).and(containsString(">First</span>")));
+	}
+
+	@Test
+	public void null_props_take_defaults() throws Exception {
+		assertThat(container.renderAllToStaticMarkup("jsx!Component", ImmutableList.of(ImmutableMap.of(),
+				ImmutableMap.of("name", "Named"))), contains("<div>Component content</div>", "<div>Named content</div>"));
+		assertThat(container.renderAllToStaticMarkup("jsx!Component", Collections.singletonList(null)),
+				contains("<div>Component content</div>"));
+	}
+
+	@Test
+	public void empty_batch_renders_nothing() throws Exception {
+		assertThat(container.renderAllToStaticMarkup("jsx!Component", ImmutableList.of()), emptyIterable());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejects_props_that_are_not_objects() throws Exception {
+		container.renderAllToStaticMarkup("jsx!Component", ImmutableList.of("not an object"));
+	}
+
+	@Test
+	public void reports_batch_saving_over_individual_renders() throws Exception {
+		List<Object> propsList = names(5000);
+		container.renderAllToStaticMarkup("jsx!Component", propsList);
+		for (Object props : propsList) {
+			container.renderToStaticMarkup("jsx!Component", props);
+		}
+
+		Stopwatch individual = Stopwatch.createStarted();
+		for (Object props : propsList) {
+			container.renderToStaticMarkup("jsx!Component", props);
+		}
+		individual.stop();
+
+		Stopwatch batch = Stopwatch.createStarted();
+		container.renderAllToStaticMarkup("jsx!Component", propsList);
+		batch.stop();
+
+		LOG.info("{} renders: individually {}, as one batch {}", propsList.size(), individual, batch);
+	}
+
+	private static List<Object> names(int count) {
+		ImmutableList.Builder<Object> propsList = ImmutableList.builder();
+		for (int i = 0; i < count; i++) {
+			propsList.add(ImmutableMap.of("name", "Item " + i));
+		}
+		return propsList.build();
+	}
+}
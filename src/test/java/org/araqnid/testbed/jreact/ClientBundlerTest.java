@@ -0,0 +1,49 @@
+package org.araqnid.testbed.jreact;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class ClientBundlerTest {
+	@Test
+	public void bundle_contains_modules_in_dependency_order() throws Exception {
+		ClientBundler.Bundle bundle = ClientBundler.build(new JSModuleContainer("test"), "multipleDependencies");
+		assertThat(bundle.moduleNames, contains("noDependencies", "emptyDependencies", "singleDependency",
+				"multipleDependencies"));
+		assertThat(evaluate(bundle, "jreact.require(jreact.entry)"),
+				equalTo("noDependencies module, emptyDependencies module, depends on <noDependencies module>"));
+	}
+
+	@Test
+	public void bundled_component_renders_same_markup_as_server() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		ClientBundler.Bundle bundle = ClientBundler.build(container, "jsx!AggregateComponent");
+		Object clientMarkup = evaluate(bundle,
+				"React.renderToStaticMarkup(React.createElement(jreact.require('jsx!AggregateComponent')))");
+		assertThat(clientMarkup, equalTo(container.renderToStaticMarkup("jsx!AggregateComponent", null)));
+	}
+
+	@Test
+	public void bundle_hash_follows_content() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		ClientBundler.Bundle first = ClientBundler.build(container, "singleDependency");
+		assertThat(ClientBundler.build(container, "singleDependency").hash, equalTo(first.hash));
+		assertThat(ClientBundler.build(container, "multipleDependencies").hash, not(equalTo(first.hash)));
+		assertThat(first.fingerprint().length(), equalTo(12));
+	}
+
+	private static Object evaluate(ClientBundler.Bundle bundle, String expression) throws Exception {
+		ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
+		engine.eval("var global = this;");
+		engine.eval(new String(bundle.content, StandardCharsets.UTF_8));
+		return engine.eval(expression);
+	}
+}
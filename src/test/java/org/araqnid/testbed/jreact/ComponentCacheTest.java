@@ -0,0 +1,148 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.List;
+import java.util.Map;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+public class ComponentCacheTest {
+	private final ComponentCache cache = new ComponentCache(1024 * 1024);
+	private final JSModuleContainer container = JSModuleContainer.builder("test").componentCache(cache).build();
+	private final JSModuleContainer uncached = new JSModuleContainer("test");
+
+	@Test
+	public void splices_cached_markup_into_later_renders() throws Exception {
+		container.renderToStaticMarkup("jsx!TileGrid", grid("alice", products()));
+		double tileRenders = renderCount("jsx!Tile");
+		String markup = container.renderToStaticMarkup("jsx!TileGrid", grid("bob", products()));
+		assertThat(markup, equalTo(uncached.renderToStaticMarkup("jsx!TileGrid", grid("bob", products()))));
+		assertThat(renderCount("jsx!Tile"), equalTo(tileRenders));
+		assertThat(cache.stats().hits, equalTo(2L));
+		assertThat(cache.stats().misses, equalTo(3L));
+	}
+
+	@Test
+	public void markup_matches_uncached_render() throws Exception {
+		String markup = container.renderToStaticMarkup("jsx!TileGrid", grid("alice", products()));
+		assertThat(markup, equalTo(uncached.renderToStaticMarkup("jsx!TileGrid", grid("alice", products()))));
+		assertThat(markup, not(containsString(ComponentCache.PLACEHOLDER_TAG)));
+	}
+
+	@Test
+	public void renders_again_for_different_props() throws Exception {
+		container.renderToStaticMarkup("jsx!TileGrid", grid("alice", products()));
+		String markup = container.renderToStaticMarkup("jsx!TileGrid", grid("alice", ImmutableList.of(
+				product(3, "Trowel", null))));
+		assertThat(markup, containsString("<h2>Trowel</h2>"));
+		assertThat(cache.stats().misses, equalTo(4L));
+	}
+
+	@Test
+	public void nested_cached_markup_is_spliced_into_outer_component() throws Exception {
+		container.renderToStaticMarkup("jsx!Tile", ImmutableMap.of("title", "Spade", "badge", "New"));
+		double badgeRenders = renderCount("jsx!Badge");
+		String markup = container.renderToStaticMarkup("jsx!Tile", ImmutableMap.of("title", "Fork", "badge", "New"));
+		assertThat(markup, equalTo(uncached.renderToStaticMarkup("jsx!Tile", ImmutableMap.of("title", "Fork",
+				"badge", "New"))));
+		assertThat(renderCount("jsx!Badge"), equalTo(badgeRenders));
+		assertThat(container.renderToStaticMarkup("jsx!Tile", ImmutableMap.of("title", "Fork", "badge", "New")),
+				equalTo(markup));
+	}
+
+	@Test
+	public void batch_renders_use_cache() throws Exception {
+		List<Map<String, Object>> propsList = ImmutableList.of(grid("alice", products()), grid("bob", products()));
+		container.renderAllToStaticMarkup("jsx!TileGrid", propsList);
+		List<String> markup = container.renderAllToStaticMarkup("jsx!TileGrid", propsList);
+		assertThat(markup.get(1), equalTo(uncached.renderToStaticMarkup("jsx!TileGrid", grid("bob", products()))));
+		assertThat(cache.stats().hits, equalTo(4L));
+	}
+
+	@Test
+	public void render_to_string_bypasses_cache() throws Exception {
+		String markup = container.renderToString("jsx!TileGrid", grid("alice", products()));
+		assertThat(markup, both(containsString("data-react-checksum")).and(not(containsString(
+				ComponentCache.PLACEHOLDER_TAG))));
+		assertThat(cache.stats().misses, equalTo(0L));
+	}
+
+	@Test
+	public void invalidates_by_module() throws Exception {
+		container.renderToStaticMarkup("jsx!TileGrid", grid("alice", products()));
+		cache.invalidateModule("jsx!Tile");
+		container.renderToStaticMarkup("jsx!TileGrid", grid("alice", products()));
+		assertThat(cache.stats().invalidations, equalTo(2L));
+		assertThat(cache.stats().hits, equalTo(1L));
+	}
+
+	@Test
+	public void caches_components_with_nested_bridged_props() throws Exception {
+		container.renderToStaticMarkup("jsx!ProfileCard", profile("alice", "admin", "editor"));
+		double renders = renderCount("jsx!ProfileCard");
+		String markup = container.renderToStaticMarkup("jsx!ProfileCard", profile("alice", "admin", "editor"));
+		assertThat(markup, equalTo(uncached.renderToStaticMarkup("jsx!ProfileCard", profile("alice", "admin",
+				"editor"))));
+		assertThat(renderCount("jsx!ProfileCard"), equalTo(renders));
+		assertThat(cache.stats().hits, equalTo(1L));
+		assertThat(cache.stats().misses, equalTo(1L));
+		assertThat(cache.stats().bypasses, equalTo(0L));
+		container.renderToStaticMarkup("jsx!ProfileCard", profile("alice", "admin"));
+		assertThat(cache.stats().misses, equalTo(2L));
+	}
+
+	@Test
+	public void counts_renders_that_bypass_cache() throws Exception {
+		Object function = ((JSObject) container.require("react")).getMember("createElement");
+		Map<String, Object> props = ImmutableMap.of("title", "Spade", "onSelect", function);
+		String markup = container.renderToStaticMarkup("jsx!Tile", props);
+		assertThat(markup, equalTo(uncached.renderToStaticMarkup("jsx!Tile", props)));
+		assertThat(cache.stats().bypasses, equalTo(1L));
+		assertThat(cache.stats().hits + cache.stats().misses, equalTo(0L));
+	}
+
+	@Test
+	public void evicts_to_stay_within_byte_budget() throws Exception {
+		ComponentCache smallCache = new ComponentCache(2048);
+		JSModuleContainer smallContainer = JSModuleContainer.builder("test").componentCache(smallCache).build();
+		for (int i = 0; i < 50; i++) {
+			smallContainer.renderToStaticMarkup("jsx!Tile", ImmutableMap.of("title", "Tile " + i));
+		}
+		assertThat(smallCache.stats().evictions, greaterThan(0L));
+		assertThat(smallCache.stats().bytes, lessThanOrEqualTo(2048L));
+	}
+
+	private double renderCount(String moduleName) throws Exception {
+		JSObject renderCount = (JSObject) ((JSObject) container.require(moduleName)).getMember("renderCount");
+		return ((Number) renderCount.call(null)).doubleValue();
+	}
+
+	private static Map<String, Object> grid(String user, List<Map<String, Object>> products) {
+		return ImmutableMap.of("user", user, "products", products);
+	}
+
+	private static Map<String, Object> profile(String name, String... roles) {
+		return ImmutableMap.of("user", ImmutableMap.of("name", name, "roles", ImmutableList.copyOf(roles)));
+	}
+
+	private static List<Map<String, Object>> products() {
+		return ImmutableList.of(product(1, "Spade", "New"), product(2, "Rake", null));
+	}
+
+	private static Map<String, Object> product(int id, String title, String badge) {
+		return badge != null ? ImmutableMap.of("id", id, "title", title, "badge", badge) : ImmutableMap.of("id", id,
+				"title", title);
+	}
+}
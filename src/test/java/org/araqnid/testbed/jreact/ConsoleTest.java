@@ -0,0 +1,91 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.ScriptEngine;
+
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ConsoleTest {
+	private final ScriptEngine engine = new NashornScriptEngineFactory().getScriptEngine();
+	private final AtomicLong nanos = new AtomicLong();
+	private final Ticker ticker = new Ticker() {
+		@Override
+		public long read() {
+			return nanos.get();
+		}
+	};
+
+	@Test
+	public void formats_strings_and_numbers() throws Exception {
+		assertThat(JSModuleContainer.Console.format(engine.eval("'text'"), engine.eval("42"), engine.eval("1.5"), null),
+				equalTo("text 42 1.5 null"));
+	}
+
+	@Test
+	public void formats_object_members() throws Exception {
+		assertThat(JSModuleContainer.Console.format(engine.eval("({ a: 1, b: 'x', c: [1, 2], f: function() {},"
+				+ " u: undefined })")), equalTo("{a: 1, b: \"x\", c: [1, 2], f: function, u: undefined}"));
+	}
+
+	@Test
+	public void formats_nested_objects_to_limited_depth() throws Exception {
+		assertThat(JSModuleContainer.Console.format(engine.eval("({ a: { b: { c: 1 } } })")),
+				equalTo("{a: {b: {...}}}"));
+	}
+
+	@Test
+	public void formats_limited_number_of_elements() throws Exception {
+		assertThat(JSModuleContainer.Console.format(engine.eval("(function() { var a = []; for (var i = 0; i < 100; i++)"
+				+ " a.push(i); return a; })()")),
+				equalTo("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, ...]"));
+	}
+
+	@Test
+	public void truncates_long_messages() throws Exception {
+		String formatted = JSModuleContainer.Console.format(Strings.repeat("x", 5000));
+		assertThat(formatted.length(), equalTo(2003));
+	}
+
+	@Test
+	public void arguments_not_formatted_when_level_disabled() throws Exception {
+		AtomicInteger formatted = new AtomicInteger();
+		Object argument = new Object() {
+			@Override
+			public String toString() {
+				formatted.incrementAndGet();
+				return "argument";
+			}
+		};
+		JSModuleContainer.Console console = new JSModuleContainer.Console(LoggerFactory.getLogger(ConsoleTest.class),
+				new ConsoleThrottle(100, Ticker.systemTicker()));
+		console.debug("message", argument);
+		assertThat(formatted.get(), equalTo(0));
+		console.info("message", argument);
+		assertThat(formatted.get(), equalTo(1));
+	}
+
+	@Test
+	public void throttle_admits_limited_messages_per_second() throws Exception {
+		ConsoleThrottle throttle = new ConsoleThrottle(3, ticker);
+		assertThat(throttle.admit(), equalTo(0L));
+		assertThat(throttle.admit(), equalTo(0L));
+		assertThat(throttle.admit(), equalTo(0L));
+		assertThat(throttle.admit(), equalTo(-1L));
+		assertThat(throttle.admit(), equalTo(-1L));
+		nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(throttle.admit(), equalTo(2L));
+		assertThat(throttle.admit(), equalTo(0L));
+	}
+}
@@ -1,13 +1,26 @@
 package org.araqnid.testbed.jreact;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
 
+import org.eclipse.jetty.util.resource.Resource;
 import org.junit.Test;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
 import com.google.common.reflect.ClassPath;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsArrayContaining.hasItemInArray;
 
 public class EmbeddedResourceTest {
@@ -29,6 +42,72 @@ public class EmbeddedResourceTest {
 		assertThat(resource.list(), hasItemInArray("index.html"));
 	}
 
+	@Test
+	public void file_resource_is_not_a_directory() throws Exception {
+		EmbeddedResource resource = (EmbeddedResource) webappRoot().addPath("/index.html");
+		assertThat(resource.exists(), equalTo(true));
+		assertThat(resource.isDirectory(), equalTo(false));
+		assertThat(resource.list(), nullValue());
+	}
+
+	@Test
+	public void file_resource_has_length_and_content_hash() throws Exception {
+		EmbeddedResource resource = (EmbeddedResource) testRoot().addPath("/style.css");
+		byte[] content = "body { color: black; }\n".getBytes(StandardCharsets.UTF_8);
+		assertThat(resource.length(), equalTo((long) content.length));
+		assertThat(resource.contentHash(), equalTo(Optional.of(Hashing.sha1().hashBytes(content))));
+		assertThat(ByteStreams.toByteArray(resource.getInputStream()), equalTo(content));
+	}
+
+	@Test
+	public void compressible_resource_has_gzip_variant() throws Exception {
+		EmbeddedResource large = (EmbeddedResource) testRoot().addPath("/large.css");
+		assertThat(large.gzipContent().isPresent(), equalTo(true));
+		assertThat(large.gzipContent().get().remaining(), lessThan((int) large.length()));
+		EmbeddedResource small = (EmbeddedResource) testRoot().addPath("/style.css");
+		assertThat(small.gzipContent().isPresent(), equalTo(false));
+	}
+
+	@Test
+	public void content_is_readable_through_channel() throws Exception {
+		EmbeddedResource resource = (EmbeddedResource) testRoot().addPath("/large.css");
+		ByteBuffer buffer = ByteBuffer.allocate((int) resource.length() + 1);
+		try (ReadableByteChannel channel = resource.getReadableByteChannel()) {
+			while (channel.read(buffer) >= 0) {
+			}
+		}
+		assertThat(Arrays.copyOf(buffer.array(), buffer.position()), equalTo(Resources.toByteArray(Resources
+				.getResource("testweb/large.css"))));
+	}
+
+	@Test
+	public void lists_subdirectories_with_trailing_slash() throws Exception {
+		assertThat(testRoot().list(), arrayContaining("large.css", "scripts/", "style.css"));
+		Resource scripts = testRoot().addPath("/scripts/");
+		assertThat(scripts.isDirectory(), equalTo(true));
+		assertThat(scripts.list(), arrayContaining("app.js"));
+		assertThat(scripts.addPath("app.js").exists(), equalTo(true));
+	}
+
+	@Test
+	public void missing_resource_does_not_exist() throws Exception {
+		Resource resource = testRoot().addPath("/nothing.html");
+		assertThat(resource.exists(), equalTo(false));
+		assertThat(resource.isDirectory(), equalTo(false));
+		assertThat(resource.getURL(), nullValue());
+		assertThat(resource.length(), equalTo(-1L));
+	}
+
+	@Test(expected = MalformedURLException.class)
+	public void path_escaping_root_is_rejected() throws Exception {
+		testRoot().addPath("/../test/Component.jsx");
+	}
+
+	private EmbeddedResource testRoot() throws IOException {
+		return new EmbeddedResource(getClass().getClassLoader(), "testweb", ClassPath.from(getClass()
+				.getClassLoader()));
+	}
+
 	private EmbeddedResource webappRoot() throws IOException {
 		return new EmbeddedResource(getClass().getClassLoader(), "web", ClassPath.from(getClass()
 				.getClassLoader()));
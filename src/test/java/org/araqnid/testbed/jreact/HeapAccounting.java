@@ -0,0 +1,44 @@
+package org.araqnid.testbed.jreact;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Callable;
+
+public final class HeapAccounting {
+	private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+	private HeapAccounting() {
+	}
+
+	public static <T> Retained<T> retainedBy(Callable<T> allocator) throws Exception {
+		long before = settledHeapUsed();
+		T value = allocator.call();
+		long after = settledHeapUsed();
+		return new Retained<>(value, after - before);
+	}
+
+	public static long settledHeapUsed() {
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			long current = MEMORY.getHeapMemoryUsage().getUsed();
+			if (current >= used) break;
+			used = current;
+		}
+		return used;
+	}
+
+	public static String megabytes(long bytes) {
+		return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+	}
+
+	public static final class Retained<T> {
+		public final T value;
+		public final long bytes;
+
+		private Retained(T value, long bytes) {
+			this.value = value;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class JSModuleContainerPoolTest {
+	private final JSModuleContainerPool pool = new JSModuleContainerPool(() -> new JSModuleContainer("test"), 2,
+			ImmutableList.of("singleDependency"), 100, TimeUnit.MILLISECONDS);
+
+	@Before
+	public void startPool() {
+		pool.startAsync().awaitRunning();
+	}
+
+	@After
+	public void stopPool() {
+		pool.stopAsync().awaitTerminated();
+	}
+
+	@Test
+	public void pool_is_filled_on_startup() throws Exception {
+		assertThat(pool.available(), equalTo(2));
+	}
+
+	@Test
+	public void leased_container_has_modules_preloaded() throws Exception {
+		try (JSModuleContainerPool.Lease lease = pool.acquire()) {
+			assertThat(lease.container().require("singleDependency"), equalTo("depends on <noDependencies module>"));
+		}
+	}
+
+	@Test
+	public void concurrent_leases_get_distinct_containers() throws Exception {
+		try (JSModuleContainerPool.Lease lease1 = pool.acquire(); JSModuleContainerPool.Lease lease2 = pool.acquire()) {
+			assertThat(lease1.container(), not(sameInstance(lease2.container())));
+			assertThat(pool.available(), equalTo(0));
+		}
+		assertThat(pool.available(), equalTo(2));
+	}
+
+	@Test
+	public void acquire_times_out_when_pool_is_exhausted() throws Exception {
+		JSModuleContainerPool.Lease lease1 = pool.acquire();
+		JSModuleContainerPool.Lease lease2 = pool.acquire();
+		try {
+			pool.acquire().close();
+			fail();
+		} catch (TimeoutException e) {
+			// expected
+		} finally {
+			lease1.close();
+			lease2.close();
+		}
+	}
+
+	@Test
+	public void closing_lease_twice_returns_container_once() throws Exception {
+		JSModuleContainerPool.Lease lease = pool.acquire();
+		lease.close();
+		lease.close();
+		assertThat(pool.available(), equalTo(2));
+	}
+
+	@Test
+	public void pooled_containers_share_one_engine() throws Exception {
+		try (JSModuleContainerPool.Lease lease1 = pool.acquire(); JSModuleContainerPool.Lease lease2 = pool.acquire()) {
+			assertThat(lease1.container().sharesEngineWith(lease2.container()), equalTo(true));
+			assertThat(lease1.container().sharesEngineWith(new JSModuleContainer("test")), equalTo(false));
+		}
+	}
+
+	@Test
+	public void quarantined_container_is_replaced_with_a_fresh_one() throws Exception {
+		JSModuleContainer quarantined;
+		try (JSModuleContainerPool.Lease lease = pool.acquire()) {
+			quarantined = lease.container();
+			lease.quarantine();
+		}
+		assertThat(pool.quarantinedCount(), equalTo(1L));
+		try (JSModuleContainerPool.Lease lease1 = pool.acquire(1, TimeUnit.SECONDS);
+				JSModuleContainerPool.Lease lease2 = pool.acquire(10, TimeUnit.SECONDS)) {
+			assertThat(lease1.container(), not(sameInstance(quarantined)));
+			assertThat(lease2.container(), not(sameInstance(quarantined)));
+			assertThat(lease2.container().require("singleDependency"),
+					equalTo("depends on <noDependencies module>"));
+			assertThat(lease1.container().sharesEngineWith(lease2.container()), equalTo(false));
+		}
+	}
+}
@@ -1,6 +1,12 @@
 package org.araqnid.testbed.jreact;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.script.ScriptException;
 
@@ -11,7 +17,10 @@ import org.junit.Test;
 import static org.araqnid.testbed.jreact.JSObjectMatchers.jsFunction;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.fail;
 
@@ -37,6 +46,77 @@ public class JSModuleContainerTest {
 		assertThat(result, equalTo("depends on <noDependencies module>"));
 	}
 
+	@Test
+	public void loads_module_with_multiple_dependencies() throws IOException, ScriptException {
+		JSModuleContainer container = new JSModuleContainer("test");
+		Object result = container.require("multipleDependencies");
+		assertThat(result,
+				equalTo("noDependencies module, emptyDependencies module, depends on <noDependencies module>"));
+	}
+
+	@Test
+	public void lists_modules_in_dependency_order() throws IOException, ScriptException {
+		JSModuleContainer container = new JSModuleContainer("test");
+		assertThat(container.dependencyOrder("multipleDependencies"), contains("noDependencies",
+				"emptyDependencies", "singleDependency", "multipleDependencies"));
+		assertThat(container.dependencyOrder("jsx!AggregateComponent"), contains("react", "jsx!Component",
+				"jsx!AggregateComponent"));
+	}
+
+	@Test
+	public void loads_dependencies_in_parallel() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			JSModuleContainer container = JSModuleContainer.builder("test").loaderExecutor(executor).build();
+			Object result = container.require("multipleDependencies");
+			assertThat(result,
+					equalTo("noDependencies module, emptyDependencies module, depends on <noDependencies module>"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void parallel_loader_defines_one_module_at_a_time() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		EvaluationProbe.reset();
+		try {
+			JSModuleContainer container = JSModuleContainer.builder("test").loaderExecutor(executor).build();
+			assertThat(container.require("parallel/all"), equalTo("a, b, c"));
+			assertThat(EvaluationProbe.entered.get(), equalTo(3));
+			assertThat(EvaluationProbe.maxActive.get(), equalTo(1));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void concurrent_requires_share_one_load() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Object>> futures = executor.invokeAll(Collections.nCopies(4,
+					() -> container.require("jsx!AggregateComponent")));
+			Object first = futures.get(0).get();
+			for (Future<Object> future : futures) {
+				assertThat(future.get(), sameInstance(first));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void traps_dependency_cycle() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		try {
+			container.require("cycleA");
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("cycleC -> cycleA -> cycleB -> cycleC"));
+		}
+	}
+
 	@Test
 	public void loads_react() throws Exception {
 		JSModuleContainer container = new JSModuleContainer("test");
@@ -50,6 +130,22 @@ public class JSModuleContainerTest {
 		container.require("react", JSModuleContainer.React.class);
 	}
 
+	@Test
+	public void concurrent_adaptor_requires_share_one_adaptor() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<ConsoleLogger>> futures = executor.invokeAll(Collections.nCopies(4,
+					() -> container.require("consoleLogger", ConsoleLogger.class)));
+			ConsoleLogger first = futures.get(0).get();
+			for (Future<ConsoleLogger> future : futures) {
+				assertThat(future.get(), sameInstance(first));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	@Test
 	public void traps_attempt_to_expose_module_with_incompatible_adaptor() throws Exception {
 		JSModuleContainer container = new JSModuleContainer("test");
@@ -76,6 +172,27 @@ public class JSModuleContainerTest {
 		}
 	}
 
+	@Test
+	public void loading_react_does_not_load_jsx_transformer() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		container.require("react");
+		assertThat(container.isLoaded("JSXTransformer"), equalTo(false));
+	}
+
+	@Test
+	public void loading_precompiled_jsx_module_does_not_load_jsx_transformer() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		container.require("jsx!PrecompiledComponent");
+		assertThat(container.isLoaded("JSXTransformer"), equalTo(false));
+	}
+
+	@Test
+	public void transforming_jsx_module_loads_jsx_transformer() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("test");
+		container.require("jsx!Component");
+		assertThat(container.isLoaded("JSXTransformer"), equalTo(true));
+	}
+
 	@Test
 	public void loads_jsx_transformer() throws Exception {
 		JSModuleContainer container = new JSModuleContainer("test");
@@ -107,6 +224,56 @@ public class JSModuleContainerTest {
 				equalTo("<ul><li><div>Component1 content</div></li><li><div>Component2 content</div></li></ul>"));
 	}
 
+	@Test
+	public void loads_precompiled_jsx_module_without_runtime_transform() throws Exception {
+		JSModuleContainer container = JSModuleContainer.builder("test").runtimeJsxTransform(false).build();
+		JSObject jsxComponent = (JSObject) container.require("jsx!PrecompiledComponent");
+		JSModuleContainer.React react = container.require("react", JSModuleContainer.React.class);
+		assertThat(react.renderToStaticMarkup(react.createElement(jsxComponent)),
+				equalTo("<div>Precompiled content</div>"));
+	}
+
+	@Test
+	public void loads_jsx_source_in_preference_to_precompiled_copy_when_asked() throws Exception {
+		JSModuleContainer container = JSModuleContainer.builder("test").preferSourceJsx(true).build();
+		JSObject jsxComponent = (JSObject) container.require("jsx!PrecompiledComponent");
+		JSModuleContainer.React react = container.require("react", JSModuleContainer.React.class);
+		assertThat(react.renderToStaticMarkup(react.createElement(jsxComponent)),
+				equalTo("<div>Source content</div>"));
+		assertThat(container.moduleSource("jsx!PrecompiledComponent"), containsString("Source content"));
+		assertThat(container.isLoaded("JSXTransformer"), equalTo(true));
+	}
+
+	@Test
+	public void traps_jsx_module_without_precompiled_version_when_runtime_transform_disabled() throws Exception {
+		JSModuleContainer container = JSModuleContainer.builder("test").runtimeJsxTransform(false).build();
+		try {
+			container.require("jsx!Component");
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("jsx!Component"));
+		}
+	}
+
+	@Test
+	public void spawned_container_renders_jsx_module() throws Exception {
+		JSModuleContainer template = new JSModuleContainer("test");
+		template.require("jsx!AggregateComponent");
+		JSModuleContainer container = template.spawn();
+		JSObject jsxComponent = (JSObject) container.require("jsx!AggregateComponent");
+		JSModuleContainer.React react = container.require("react", JSModuleContainer.React.class);
+		assertThat(react.renderToStaticMarkup(react.createElement(jsxComponent)),
+				equalTo("<ul><li><div>Component1 content</div></li><li><div>Component2 content</div></li></ul>"));
+	}
+
+	@Test
+	public void spawned_container_has_its_own_module_instances() throws Exception {
+		JSModuleContainer template = new JSModuleContainer("test");
+		Object templateReact = template.require("react");
+		Object spawnedReact = template.spawn().require("react");
+		assertThat(spawnedReact, not(sameInstance(templateReact)));
+	}
+
 	@Test
 	public void console_log_available_to_js_module() throws Exception {
 		new JSModuleContainer("test").require("consoleLogger", ConsoleLogger.class).logMessage();
@@ -147,6 +314,37 @@ public class JSModuleContainerTest {
 		new JSModuleContainer("test").require("consoleLogger", ConsoleLogger.class).logErrorWithObject();
 	}
 
+	@Test
+	public void console_debug_available_to_js_module() throws Exception {
+		new JSModuleContainer("test").require("consoleLogger", ConsoleLogger.class).logDebug();
+	}
+
+	@Test
+	public void console_time_available_to_js_module() throws Exception {
+		new JSModuleContainer("test").require("consoleLogger", ConsoleLogger.class).logTime();
+	}
+
+	public static final class EvaluationProbe {
+		static final AtomicInteger entered = new AtomicInteger();
+		static final AtomicInteger active = new AtomicInteger();
+		static final AtomicInteger maxActive = new AtomicInteger();
+
+		static void reset() {
+			entered.set(0);
+			active.set(0);
+			maxActive.set(0);
+		}
+
+		public static void enter() {
+			entered.incrementAndGet();
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+		}
+
+		public static void exit() {
+			active.decrementAndGet();
+		}
+	}
+
 	public interface ConsoleLogger {
 		void logMessage();
 
@@ -160,6 +358,10 @@ public class JSModuleContainerTest {
 
 		void logWarningWithObject();
 
+		void logDebug();
+
+		void logTime();
+
 		void logError();
 
 		void logErrorWithObject();
@@ -0,0 +1,68 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class JSXTransformCacheTest {
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final AtomicInteger transformCount = new AtomicInteger();
+	private final Function<String, String> transformer = source -> {
+		transformCount.incrementAndGet();
+		return "transformed(" + source + ")";
+	};
+
+	@Test
+	public void transforms_source_on_first_use() throws Exception {
+		JSXTransformCache cache = new JSXTransformCache(temporaryFolder.getRoot().toPath());
+		assertThat(cache.transform("<div/>", transformer), equalTo("transformed(<div/>)"));
+		assertThat(transformCount.get(), equalTo(1));
+	}
+
+	@Test
+	public void reuses_output_for_same_source() throws Exception {
+		JSXTransformCache cache = new JSXTransformCache(temporaryFolder.getRoot().toPath());
+		cache.transform("<div/>", transformer);
+		assertThat(cache.transform("<div/>", transformer), equalTo("transformed(<div/>)"));
+		assertThat(transformCount.get(), equalTo(1));
+	}
+
+	@Test
+	public void transforms_changed_source() throws Exception {
+		JSXTransformCache cache = new JSXTransformCache(temporaryFolder.getRoot().toPath());
+		cache.transform("<div/>", transformer);
+		assertThat(cache.transform("<span/>", transformer), equalTo("transformed(<span/>)"));
+		assertThat(transformCount.get(), equalTo(2));
+	}
+
+	@Test
+	public void reads_output_persisted_by_another_instance() throws Exception {
+		new JSXTransformCache(temporaryFolder.getRoot().toPath()).transform("<div/>", transformer);
+		JSXTransformCache cache = new JSXTransformCache(temporaryFolder.getRoot().toPath());
+		assertThat(cache.transform("<div/>", transformer), equalTo("transformed(<div/>)"));
+		assertThat(transformCount.get(), equalTo(1));
+	}
+
+	@Test
+	public void containers_share_transform_output() throws Exception {
+		File cacheDir = temporaryFolder.newFolder("jsx");
+		JSXTransformCache cache = new JSXTransformCache(cacheDir.toPath());
+		JSModuleContainer.builder("test").jsxTransformCache(cache).build().require("jsx!Component");
+		JSModuleContainer container = JSModuleContainer.builder("test").jsxTransformCache(cache).build();
+		JSObject component = (JSObject) container.require("jsx!Component");
+		JSModuleContainer.React react = container.require("react", JSModuleContainer.React.class);
+		assertThat(react.renderToStaticMarkup(react.createElement(component)),
+				equalTo("<div>Component content</div>"));
+	}
+}
@@ -0,0 +1,45 @@
+package org.araqnid.testbed.jreact;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+
+import static org.araqnid.testbed.jreact.HeapAccounting.megabytes;
+import static org.araqnid.testbed.jreact.HeapAccounting.retainedBy;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LazyJSXTransformerTest {
+	private static final Logger LOG = LoggerFactory.getLogger(LazyJSXTransformerTest.class);
+
+	@Test
+	public void jsx_transformer_is_not_loaded_until_first_jsx_source_module() throws Exception {
+		new JSModuleContainer("test").require("react"); // warm up shared JVM state before measuring
+
+		Stopwatch precompiledOnlyTime = Stopwatch.createStarted();
+		HeapAccounting.Retained<JSModuleContainer> precompiledOnly = retainedBy(() -> {
+			JSModuleContainer container = new JSModuleContainer("test");
+			container.require("jsx!PrecompiledComponent");
+			return container;
+		});
+		precompiledOnlyTime.stop();
+		// heap figures after System.gc() are too noisy to assert on, so they are only reported: whether the transformer
+		// got loaded is what the test checks
+		assertThat(precompiledOnly.value.isLoaded("JSXTransformer"), equalTo(false));
+
+		Stopwatch withSourceTime = Stopwatch.createStarted();
+		HeapAccounting.Retained<JSModuleContainer> withSource = retainedBy(() -> {
+			JSModuleContainer container = new JSModuleContainer("test");
+			container.require("jsx!PrecompiledComponent");
+			container.require("jsx!Component");
+			return container;
+		});
+		withSourceTime.stop();
+		assertThat(withSource.value.isLoaded("JSXTransformer"), equalTo(true));
+
+		LOG.info("per engine: precompiled only {} retaining {}, with JSX source {} retaining {}", precompiledOnlyTime,
+				megabytes(precompiledOnly.bytes), withSourceTime, megabytes(withSource.bytes));
+	}
+}
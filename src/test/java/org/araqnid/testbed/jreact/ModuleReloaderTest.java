@@ -0,0 +1,182 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.script.ScriptException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class ModuleReloaderTest {
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final Thread thread = Thread.currentThread();
+	private ClassLoader originalClassLoader;
+	private File moduleRoot;
+
+	@Before
+	public void setUp() throws Exception {
+		moduleRoot = temporaryFolder.newFolder("hot");
+		writeModule("base.js", "define(function() { return 'v1' })");
+		writeModule("dependent.js", "define(['base'], function(base) { return 'uses ' + base })");
+		writeModule("other.js", "define(function() { return { name: 'other' } })");
+		originalClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(new URLClassLoader(new URL[] { temporaryFolder.getRoot().toURI().toURL() },
+				originalClassLoader));
+	}
+
+	@After
+	public void restoreClassLoader() {
+		thread.setContextClassLoader(originalClassLoader);
+	}
+
+	@Test
+	public void reloads_changed_module_and_its_dependents_only() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("hot");
+		assertThat(container.require("dependent"), equalTo("uses v1"));
+		Object other = container.require("other");
+		writeModule("base.js", "define(function() { return 'v2' })");
+		assertThat(container.reload(ImmutableSet.of("base")), contains("base", "dependent"));
+		assertThat(container.require("dependent"), equalTo("uses v2"));
+		assertThat(container.require("other"), sameInstance(other));
+	}
+
+	@Test
+	public void module_not_yet_loaded_needs_no_reload() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("hot");
+		assertThat(container.reload(ImmutableSet.of("base")), emptyIterable());
+	}
+
+	@Test
+	public void failed_reload_keeps_previous_modules() throws Exception {
+		JSModuleContainer container = new JSModuleContainer("hot");
+		assertThat(container.require("dependent"), equalTo("uses v1"));
+		writeModule("base.js", "define(function() { return 'v2' ");
+		try {
+			container.reload(ImmutableSet.of("base"));
+			fail("reload should have failed");
+		} catch (ScriptException e) {
+			// expected
+		}
+		assertThat(container.require("dependent"), equalTo("uses v1"));
+	}
+
+	@Test
+	public void pool_reloads_leased_container_only_once_released() throws Exception {
+		JSModuleContainerPool pool = new JSModuleContainerPool(() -> new JSModuleContainer("hot"), 2,
+				ImmutableList.of("dependent"), 100, TimeUnit.MILLISECONDS);
+		pool.startAsync().awaitRunning();
+		try {
+			JSModuleContainerPool.Lease lease = pool.acquire();
+			JSModuleContainer leased = lease.container();
+			writeModule("base.js", "define(function() { return 'v2' })");
+			assertThat(pool.reload(ImmutableSet.of("base")), contains("base", "dependent"));
+			assertThat(leased.require("dependent"), equalTo("uses v1"));
+			assertThat(pool.staleCount(), equalTo(1));
+			try (JSModuleContainerPool.Lease idle = pool.acquire()) {
+				assertThat(idle.container().require("dependent"), equalTo("uses v2"));
+			}
+			lease.close();
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			while (!dependentValues(pool).equals(ImmutableSet.of("uses v2"))) {
+				if (stopwatch.elapsed(TimeUnit.SECONDS) > 10) fail("released container was not reloaded");
+				Thread.sleep(20);
+			}
+			assertThat(pool.staleCount(), equalTo(0));
+		} finally {
+			pool.stopAsync().awaitTerminated();
+		}
+	}
+
+	@Test
+	public void watcher_reloads_pool_when_module_file_changes() throws Exception {
+		JSModuleContainerPool pool = new JSModuleContainerPool(() -> new JSModuleContainer("hot"), 2,
+				ImmutableList.of("dependent"), 100, TimeUnit.MILLISECONDS);
+		ModuleReloader reloader = new ModuleReloader(pool, new RenderCache(1024 * 1024), new ComponentCache(
+				1024 * 1024), new ClientBundler(pool), "hot", Optional.empty(), true);
+		pool.startAsync().awaitRunning();
+		reloader.startAsync().awaitRunning();
+		try {
+			writeModule("base.js", "define(function() { return 'v2' })");
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			while (!dependentValues(pool).equals(ImmutableSet.of("uses v2"))) {
+				if (stopwatch.elapsed(TimeUnit.SECONDS) > 10) fail("module was not reloaded in every container");
+				Thread.sleep(20);
+			}
+		} finally {
+			reloader.stopAsync().awaitTerminated();
+			pool.stopAsync().awaitTerminated();
+		}
+	}
+
+	@Test
+	public void watcher_reloads_from_configured_source_directory() throws Exception {
+		Path sourceDirectory = temporaryFolder.newFolder("src").toPath();
+		write(sourceDirectory.resolve("hot/base.js"), "define(function() { return 'source v1' })");
+		JSModuleContainerPool pool = new JSModuleContainerPool(() -> JSModuleContainer.builder("hot")
+				.sourceDirectory(sourceDirectory).build(), 2, ImmutableList.of("dependent"), 100,
+				TimeUnit.MILLISECONDS);
+		ModuleReloader reloader = new ModuleReloader(pool, new RenderCache(1024 * 1024), new ComponentCache(
+				1024 * 1024), new ClientBundler(pool), "hot", Optional.of(sourceDirectory), true);
+		pool.startAsync().awaitRunning();
+		reloader.startAsync().awaitRunning();
+		try {
+			assertThat(dependentValues(pool), equalTo(ImmutableSet.of("uses source v1")));
+			write(sourceDirectory.resolve("hot/base.js"), "define(function() { return 'source v2' })");
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			while (!dependentValues(pool).equals(ImmutableSet.of("uses source v2"))) {
+				if (stopwatch.elapsed(TimeUnit.SECONDS) > 10) fail("source change was not reloaded");
+				Thread.sleep(20);
+			}
+		} finally {
+			reloader.stopAsync().awaitTerminated();
+			pool.stopAsync().awaitTerminated();
+		}
+	}
+
+	@Test
+	public void maps_file_paths_to_module_names() throws Exception {
+		assertThat(ModuleReloader.moduleName(Paths.get("Component.jsx")), equalTo(Optional.of("jsx!Component")));
+		assertThat(ModuleReloader.moduleName(Paths.get("nav", "menu.js")), equalTo(Optional.of("nav/menu")));
+		assertThat(ModuleReloader.moduleName(Paths.get("notes.txt")), equalTo(Optional.empty()));
+	}
+
+	private static Set<Object> dependentValues(JSModuleContainerPool pool) throws Exception {
+		try (JSModuleContainerPool.Lease lease1 = pool.acquire(); JSModuleContainerPool.Lease lease2 = pool.acquire()) {
+			return ImmutableSet.of(lease1.container().require("dependent"), lease2.container().require("dependent"));
+		}
+	}
+
+	private void writeModule(String name, String source) throws Exception {
+		write(moduleRoot.toPath().resolve(name), source);
+	}
+
+	private static void write(Path path, String source) throws Exception {
+		Files.createParentDirs(path.toFile());
+		Files.write(source, path.toFile(), StandardCharsets.UTF_8);
+	}
+}
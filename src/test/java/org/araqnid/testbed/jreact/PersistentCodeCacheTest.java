@@ -0,0 +1,64 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.File;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.io.Files;
+
+import static org.araqnid.testbed.jreact.TestRendering.renderAggregateComponent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class PersistentCodeCacheTest {
+	private static final Logger LOG = LoggerFactory.getLogger(PersistentCodeCacheTest.class);
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void populates_code_cache_directory() throws Exception {
+		File cacheDir = temporaryFolder.newFolder("code-cache");
+		JSModuleContainer.builder("test").persistentCodeCache(cacheDir.toPath()).build().require("react");
+		assertThat(cacheFiles(cacheDir), not(emptyIterable()));
+	}
+
+	@Test
+	public void warm_container_reuses_cached_code_and_renders_same_output() throws Exception {
+		File cacheDir = temporaryFolder.newFolder("code-cache");
+
+		Stopwatch uncached = Stopwatch.createStarted();
+		String uncachedOutput = renderAggregateComponent(new JSModuleContainer("test"));
+		uncached.stop();
+
+		Stopwatch cold = Stopwatch.createStarted();
+		String coldOutput = renderAggregateComponent(JSModuleContainer.builder("test").persistentCodeCache(cacheDir.toPath())
+				.build());
+		cold.stop();
+		Set<File> cachedAfterCold = cacheFiles(cacheDir);
+
+		Stopwatch warm = Stopwatch.createStarted();
+		String warmOutput = renderAggregateComponent(JSModuleContainer.builder("test").persistentCodeCache(cacheDir.toPath())
+				.build());
+		warm.stop();
+
+		LOG.info("container startup: no cache {}, cold cache {}, warm cache {}", uncached, cold, warm);
+		assertThat(coldOutput, equalTo(uncachedOutput));
+		assertThat(warmOutput, equalTo(uncachedOutput));
+		// entries are rewritten when a function is deoptimised, but the warm container should find every one
+		assertThat(cachedAfterCold, not(emptyIterable()));
+		assertThat(cacheFiles(cacheDir), equalTo(cachedAfterCold));
+	}
+
+	private static Set<File> cacheFiles(File cacheDir) {
+		return Files.fileTreeTraverser().preOrderTraversal(cacheDir).filter(File::isFile).toSet();
+	}
+}
@@ -0,0 +1,150 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PropsBridgeTest {
+	private static final Logger LOG = LoggerFactory.getLogger(PropsBridgeTest.class);
+	private static final String EXPECTED_PROFILE =
+			"<div><h1>Alice</h1><ul><li>admin</li><li>editor</li></ul><p>42</p></div>";
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final JSModuleContainer container = new JSModuleContainer("test");
+
+	@Test
+	public void renders_component_with_map_props() throws Exception {
+		Object props = ImmutableMap.of("user",
+				ImmutableMap.of("name", "Alice", "roles", ImmutableList.of("admin", "editor")), "visits", 42);
+		assertThat(renderWithBridge("jsx!Profile", props), equalTo(EXPECTED_PROFILE));
+	}
+
+	@Test
+	public void renders_component_with_bean_props() throws Exception {
+		Object props = ImmutableMap.of("user", new User("Alice", ImmutableList.of("admin", "editor")), "visits", 42L);
+		assertThat(renderWithBridge("jsx!Profile", props), equalTo(EXPECTED_PROFILE));
+	}
+
+	@Test
+	public void renders_component_with_json_node_props() throws Exception {
+		Object props = objectMapper
+				.readTree("{\"user\":{\"name\":\"Alice\",\"roles\":[\"admin\",\"editor\"]},\"visits\":42}");
+		assertThat(renderWithBridge("jsx!Profile", props), equalTo(EXPECTED_PROFILE));
+	}
+
+	@Test
+	public void renders_same_markup_as_json_path() throws Exception {
+		Object props = largeListProps(100);
+		assertThat(renderWithBridge("jsx!LargeList", props), equalTo(renderWithJson("jsx!LargeList", props)));
+	}
+
+	@Test
+	public void missing_members_are_undefined() throws Exception {
+		JSObject typeOf = (JSObject) ((JSObject) container.require("react"))
+				.eval("(function(obj, name) { return typeof obj[name]; })");
+		PropsBridge bridge = bridge();
+		Object map = bridge.wrap(ImmutableMap.of("name", "Alice"));
+		Object bean = bridge.wrap(new User("Alice", ImmutableList.of("admin")));
+		Object json = bridge.wrap(objectMapper.readTree("{\"name\":\"Alice\"}"));
+		Object list = bridge.wrap(ImmutableList.of("admin", "editor"));
+		assertThat(typeOf.call(null, map, "missing"), equalTo("undefined"));
+		assertThat(typeOf.call(null, bean, "missing"), equalTo("undefined"));
+		assertThat(typeOf.call(null, json, "missing"), equalTo("undefined"));
+		assertThat(typeOf.call(null, list, "missing"), equalTo("undefined"));
+		assertThat(typeOf.call(null, list, 2), equalTo("undefined"));
+		assertThat(typeOf.call(null, list, -1), equalTo("undefined"));
+		assertThat(typeOf.call(null, list, 1), equalTo("string"));
+	}
+
+	@Test
+	public void reports_bridge_against_json_round_trip() throws Exception {
+		Object smallProps = ImmutableMap.of("user",
+				ImmutableMap.of("name", "Alice", "roles", ImmutableList.of("admin", "editor")), "visits", 42);
+		Object largeProps = largeListProps(10000);
+		for (int i = 0; i < 3; i++) {
+			renderWithJson("jsx!Profile", smallProps);
+			renderWithBridge("jsx!Profile", smallProps);
+		}
+
+		LOG.info("small props: json {}us, bridge {}us", time(() -> renderWithJson("jsx!Profile", smallProps), 50),
+				time(() -> renderWithBridge("jsx!Profile", smallProps), 50));
+		LOG.info("10k rows: json {}us, bridge {}us", time(() -> renderWithJson("jsx!LargeList", largeProps), 2),
+				time(() -> renderWithBridge("jsx!LargeList", largeProps), 2));
+		LOG.info("10k rows, marshalling only: json {}us, bridge {}us", time(() -> jsonProps(largeProps), 3),
+				time(() -> bridge().props(largeProps), 3));
+	}
+
+	private static Object largeListProps(int rows) {
+		ImmutableList.Builder<Object> items = ImmutableList.builder();
+		for (int i = 0; i < rows; i++) {
+			items.add(ImmutableMap.of("id", i, "name", "item " + i, "value", "value of item " + i));
+		}
+		return ImmutableMap.of("items", items.build());
+	}
+
+	private PropsBridge bridge() throws Exception {
+		return new PropsBridge((JSObject) container.require("react"));
+	}
+
+	private String renderWithBridge(String moduleName, Object props) throws Exception {
+		return render(moduleName, bridge().props(props));
+	}
+
+	private String renderWithJson(String moduleName, Object props) throws Exception {
+		return render(moduleName, jsonProps(props));
+	}
+
+	private Object jsonProps(Object props) throws Exception {
+		JSObject json = (JSObject) ((JSObject) container.require("react")).eval("JSON");
+		return ((JSObject) json.getMember("parse")).call(json, objectMapper.writeValueAsString(props));
+	}
+
+	private String render(String moduleName, Object props) throws Exception {
+		JSObject react = (JSObject) container.require("react");
+		Object element = ((JSObject) react.getMember("createElement")).call(react, container.require(moduleName),
+				props);
+		return (String) ((JSObject) react.getMember("renderToStaticMarkup")).call(react, element);
+	}
+
+	private static long time(Task task, int iterations) throws Exception {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		for (int i = 0; i < iterations; i++) {
+			task.run();
+		}
+		return stopwatch.elapsed(TimeUnit.MICROSECONDS) / iterations;
+	}
+
+	private interface Task {
+		Object run() throws Exception;
+	}
+
+	public static final class User {
+		private final String name;
+		private final List<String> roles;
+
+		public User(String name, List<String> roles) {
+			this.name = name;
+			this.roles = roles;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<String> getRoles() {
+			return roles;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class RenderCacheTest {
+	private final AtomicLong nanos = new AtomicLong();
+	private final Ticker ticker = new Ticker() {
+		@Override
+		public long read() {
+			return nanos.get();
+		}
+	};
+	private final AtomicInteger renderCount = new AtomicInteger();
+	private final RenderCache.Renderer renderer = () -> "<div>" + renderCount.incrementAndGet() + "</div>";
+	private final RenderCache cache = new RenderCache(1024 * 1024, ticker);
+
+	@Test
+	public void renders_on_miss() throws Exception {
+		assertThat(render("Component", ImmutableMap.of("a", 1)), equalTo("<div>1</div>"));
+		assertThat(cache.stats().misses, equalTo(1L));
+	}
+
+	@Test
+	public void returns_cached_markup_for_same_props() throws Exception {
+		render("Component", ImmutableMap.of("a", 1));
+		assertThat(render("Component", ImmutableMap.of("a", 1)), equalTo("<div>1</div>"));
+		assertThat(cache.stats().hits, equalTo(1L));
+	}
+
+	@Test
+	public void props_hash_ignores_map_ordering() throws Exception {
+		render("Component", ImmutableMap.of("a", 1, "b", ImmutableList.of("x", "y")));
+		assertThat(render("Component", ImmutableMap.of("b", ImmutableList.of("x", "y"), "a", 1)),
+				equalTo("<div>1</div>"));
+	}
+
+	@Test
+	public void renders_again_for_different_props() throws Exception {
+		render("Component", ImmutableMap.of("a", 1));
+		assertThat(render("Component", ImmutableMap.of("a", "1")), equalTo("<div>2</div>"));
+	}
+
+	@Test
+	public void renders_again_for_different_module() throws Exception {
+		render("Component", ImmutableMap.of("a", 1));
+		assertThat(render("OtherComponent", ImmutableMap.of("a", 1)), equalTo("<div>2</div>"));
+	}
+
+	@Test
+	public void entry_expires_after_ttl() throws Exception {
+		render("Component", ImmutableMap.of());
+		nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+		assertThat(render("Component", ImmutableMap.of()), equalTo("<div>2</div>"));
+		assertThat(cache.stats().expirations, equalTo(1L));
+	}
+
+	@Test
+	public void invalidates_by_tag() throws Exception {
+		cache.render("Component", ImmutableMap.of(), 1, TimeUnit.MINUTES, ImmutableSet.of("nav"), renderer);
+		cache.render("Footer", ImmutableMap.of(), 1, TimeUnit.MINUTES, ImmutableSet.of("footer"), renderer);
+		cache.invalidateTag("nav");
+		assertThat(render("Component", ImmutableMap.of()), equalTo("<div>3</div>"));
+		assertThat(render("Footer", ImmutableMap.of()), equalTo("<div>2</div>"));
+		assertThat(cache.stats().invalidations, equalTo(1L));
+	}
+
+	@Test
+	public void rerendered_entry_keeps_its_tags() throws Exception {
+		cache.render("Component", ImmutableMap.of(), 1, TimeUnit.MINUTES, ImmutableSet.of("nav"), renderer);
+		nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+		cache.render("Component", ImmutableMap.of(), 1, TimeUnit.MINUTES, ImmutableSet.of("nav"), renderer);
+		cache.invalidateTag("nav");
+		assertThat(render("Component", ImmutableMap.of()), equalTo("<div>3</div>"));
+	}
+
+	@Test
+	public void tags_are_forgotten_with_their_entries() throws Exception {
+		cache.render("Component", ImmutableMap.of(), 1, TimeUnit.MINUTES, ImmutableSet.of("nav"), renderer);
+		cache.invalidateModule("Component");
+		assertThat(cache.taggedCount(), equalTo(0));
+	}
+
+	@Test
+	public void concurrent_misses_render_once() throws Exception {
+		CountDownLatch rendering = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> first = executor.submit(() -> cache.render("Component", ImmutableMap.of(), 1,
+					TimeUnit.MINUTES, ImmutableSet.of(), () -> {
+						rendering.countDown();
+						Uninterruptibles.awaitUninterruptibly(release);
+						return renderer.render();
+					}));
+			rendering.await();
+			Future<String> second = executor.submit(() -> render("Component", ImmutableMap.of()));
+			Thread.sleep(50);
+			release.countDown();
+			assertThat(first.get(), equalTo("<div>1</div>"));
+			assertThat(second.get(), equalTo("<div>1</div>"));
+			assertThat(cache.stats().misses, equalTo(1L));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void evicts_to_stay_within_byte_budget() throws Exception {
+		RenderCache smallCache = new RenderCache(4096, ticker);
+		String largeMarkup = Strings.repeat("x", 500);
+		for (int i = 0; i < 20; i++) {
+			smallCache.render("Component", ImmutableMap.of("i", i), 1, TimeUnit.MINUTES, ImmutableSet.of(),
+					() -> largeMarkup);
+		}
+		RenderCache.Stats stats = smallCache.stats();
+		assertThat(stats.evictions, greaterThan(0L));
+		assertThat(stats.bytes, lessThanOrEqualTo(4096L));
+	}
+
+	private String render(String moduleName, Object props) throws Exception {
+		return cache.render(moduleName, props, 1, TimeUnit.MINUTES, ImmutableSet.of(), renderer);
+	}
+}
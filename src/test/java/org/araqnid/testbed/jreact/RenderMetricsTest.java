@@ -0,0 +1,81 @@
+package org.araqnid.testbed.jreact;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RenderMetricsTest {
+	private final AtomicLong nanos = new AtomicLong();
+	private final Ticker ticker = new Ticker() {
+		@Override
+		public long read() {
+			return nanos.get();
+		}
+	};
+	private final RenderMetrics metrics = new RenderMetrics(ticker);
+
+	@Test
+	public void timer_records_elapsed_time_and_outcome() throws Exception {
+		RenderMetrics.Timer timer = metrics.start(RenderMetrics.Operation.RENDER, "jsx!Component");
+		nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+		timer.succeeded();
+		metrics.start(RenderMetrics.Operation.RENDER, "jsx!Component").failed();
+		assertThat(metrics.count(RenderMetrics.Operation.RENDER, "jsx!Component"), equalTo(2L));
+		assertThat(metrics.errors(RenderMetrics.Operation.RENDER, "jsx!Component"), equalTo(1L));
+		assertThat(metrics.count(RenderMetrics.Operation.MODULE_LOAD, "jsx!Component"), equalTo(0L));
+	}
+
+	@Test
+	public void quantiles_are_estimated_within_bucket_resolution() throws Exception {
+		for (int i = 1; i <= 1000; i++) {
+			metrics.record(RenderMetrics.Operation.RENDER, "x", TimeUnit.MICROSECONDS.toNanos(i * 100), false);
+		}
+		assertThat(metrics.quantile(RenderMetrics.Operation.RENDER, "x", 0.5, TimeUnit.MILLISECONDS),
+				both(greaterThan(50 / 1.2)).and(lessThan(50 * 1.2)));
+		assertThat(metrics.quantile(RenderMetrics.Operation.RENDER, "x", 0.99, TimeUnit.MILLISECONDS),
+				both(greaterThan(99 / 1.2)).and(lessThan(99 * 1.2)));
+		assertThat(metrics.quantile(RenderMetrics.Operation.RENDER, "x", 0.999, TimeUnit.MILLISECONDS),
+				both(greaterThan(99.9 / 1.2)).and(lessThan(99.9 * 1.2)));
+	}
+
+	@Test
+	public void writes_prometheus_text_format() throws Exception {
+		metrics.record(RenderMetrics.Operation.RENDER, "jsx!Component", TimeUnit.MILLISECONDS.toNanos(2), false);
+		metrics.record(RenderMetrics.Operation.MODULE_LOAD, "a\"b", TimeUnit.MILLISECONDS.toNanos(1), true);
+		metrics.recordRendered("jsx!Component", 1234);
+		StringWriter writer = new StringWriter();
+		metrics.writePrometheus(writer);
+		String text = writer.toString();
+		assertThat(text, containsString("# TYPE jreact_render_seconds summary\n"));
+		assertThat(text, containsString("jreact_render_seconds_count{module=\"jsx!Component\"} 1\n"));
+		assertThat(text, containsString("jreact_render_seconds_sum{module=\"jsx!Component\"} 0.002\n"));
+		assertThat(text, containsString("jreact_render_seconds{module=\"jsx!Component\",quantile=\"0.99\"} "));
+		assertThat(text, containsString("jreact_module_load_errors_total{module=\"a\\\"b\"} 1\n"));
+		assertThat(text, containsString("jreact_render_bytes_total{module=\"jsx!Component\"} 1234\n"));
+	}
+
+	@Test
+	public void container_records_module_load_and_render_metrics() throws Exception {
+		JSModuleContainer container = JSModuleContainer.builder("test").metrics(metrics).build();
+		container.renderToString("jsx!Component", ImmutableMap.of("name", "metrics"));
+		for (String moduleName : new String[] { "react", "JSXTransformer", "jsx!Component" }) {
+			assertThat(moduleName, metrics.count(RenderMetrics.Operation.MODULE_LOAD, moduleName), equalTo(1L));
+		}
+		assertThat(metrics.count(RenderMetrics.Operation.REACT_SCRIPT_LOAD, "react"), equalTo(1L));
+		assertThat(metrics.count(RenderMetrics.Operation.JSX_TRANSFORM, "jsx!Component"), equalTo(1L));
+		assertThat(metrics.count(RenderMetrics.Operation.MODULE_DEFINE, "jsx!Component"), equalTo(1L));
+		assertThat(metrics.count(RenderMetrics.Operation.RENDER, "jsx!Component"), equalTo(1L));
+	}
+}
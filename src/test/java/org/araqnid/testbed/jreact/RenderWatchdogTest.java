@@ -0,0 +1,139 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.SettableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+
+public class RenderWatchdogTest {
+	private final RenderWatchdog watchdog = new RenderWatchdog();
+	private final JSModuleContainer container = new JSModuleContainer("test");
+
+	@Before
+	public void startWatchdog() {
+		watchdog.startAsync().awaitRunning();
+	}
+
+	@After
+	public void stopWatchdog() {
+		watchdog.stopAsync().awaitTerminated();
+	}
+
+	@Test
+	public void render_completing_in_time_returns_result() throws Exception {
+		assertThat(watchdog.call(() -> call("answer"), 1, TimeUnit.SECONDS, "runaway", null), equalTo(42));
+		assertThat(watchdog.timeoutCount(), equalTo(0L));
+	}
+
+	@Test
+	public void runaway_script_is_stopped_at_deadline() throws Exception {
+		assertStopped("spin");
+	}
+
+	@Test
+	public void runaway_script_swallowing_errors_times_out_at_deadline() throws Exception {
+		RenderExecutor executor = new RenderExecutor(1, 1, watchdog);
+		executor.startAsync().awaitRunning();
+		try {
+			SettableFuture<RenderWatchdog.RenderTimeoutException> timedOut = SettableFuture.create();
+			SettableFuture<Thread> renderThread = SettableFuture.create();
+			SettableFuture<Object> render = SettableFuture.create();
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			executor.execute(() -> {
+				renderThread.set(Thread.currentThread());
+				try {
+					render.set(watchdog.call(() -> call("spinSwallowingErrors"), 200, TimeUnit.MILLISECONDS,
+							"runaway", null, timedOut::set));
+				} catch (Exception e) {
+					render.setException(e);
+				}
+			});
+			assertThat(timedOut.get(1, TimeUnit.SECONDS).getMessage(),
+					equalTo("Render of runaway did not complete within 200ms"));
+			assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS), lessThan(1000L));
+			try {
+				render.get(5, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), instanceOf(RenderWatchdog.RenderTimeoutException.class));
+			}
+			Thread thread = renderThread.get();
+			thread.join(5000);
+			assertThat(thread.isAlive(), equalTo(false));
+			assertThat(executor.retiredCount(), equalTo(1L));
+			SettableFuture<Object> next = SettableFuture.create();
+			executor.execute(() -> {
+				try {
+					next.set(call("answer"));
+				} catch (Exception e) {
+					next.setException(e);
+				}
+			});
+			assertThat(next.get(5, TimeUnit.SECONDS), equalTo(42));
+		} finally {
+			executor.stopAsync().awaitTerminated();
+		}
+	}
+
+	@Test
+	public void timeout_handler_runs_at_deadline() throws Exception {
+		AtomicReference<Thread> handlerThread = new AtomicReference<>();
+		assertStopped("spin", e -> handlerThread.set(Thread.currentThread()));
+		assertThat(handlerThread.get().getName(), equalTo("render-watchdog"));
+		assertThat(watchdog.stoppedCurrentThread(), equalTo(true));
+	}
+
+	@Test
+	public void thread_is_usable_after_runaway_script_is_stopped() throws Exception {
+		assertStopped("spin");
+		assertThat(Thread.currentThread().isInterrupted(), equalTo(false));
+		assertThat(watchdog.call(() -> call("answer"), 1, TimeUnit.SECONDS, "runaway", null), equalTo(42));
+	}
+
+	@Test
+	public void incident_records_module_and_props() throws Exception {
+		assertStopped("spin");
+		RenderWatchdog.Incident incident = watchdog.recentIncidents().get(0);
+		assertThat(incident.moduleName, equalTo("runaway"));
+		assertThat(incident.props, equalTo("spin"));
+		assertThat(incident.timeoutMillis, equalTo(200L));
+	}
+
+	private void assertStopped(String function) throws Exception {
+		assertStopped(function, e -> {
+		});
+	}
+
+	private void assertStopped(String function, Consumer<? super RenderWatchdog.RenderTimeoutException> onTimeout)
+			throws Exception {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+		try {
+			watchdog.call(() -> call(function), 200, TimeUnit.MILLISECONDS, "runaway", function, onTimeout);
+			fail();
+		} catch (RenderWatchdog.RenderTimeoutException e) {
+			assertThat(e.getMessage(), equalTo("Render of runaway did not complete within 200ms"));
+		}
+		assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS), lessThan(1000L));
+		assertThat(watchdog.timeoutCount(), equalTo(1L));
+	}
+
+	private Object call(String function, Object... args) throws Exception {
+		JSObject module = (JSObject) container.require("runaway");
+		return ((JSObject) module.getMember(function)).call(module, args);
+	}
+}
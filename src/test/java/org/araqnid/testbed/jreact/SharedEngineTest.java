@@ -0,0 +1,70 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.List;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.araqnid.testbed.jreact.HeapAccounting.megabytes;
+import static org.araqnid.testbed.jreact.HeapAccounting.retainedBy;
+import static org.araqnid.testbed.jreact.TestRendering.renderAggregateComponent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SharedEngineTest {
+	private static final Logger LOG = LoggerFactory.getLogger(SharedEngineTest.class);
+	private static final int CONTAINERS = 4;
+
+	@Test
+	public void containers_built_for_sharing_share_engine_but_not_globals() throws Exception {
+		JSModuleContainer first = JSModuleContainer.builder("test").sharedEngine(true).build();
+		JSModuleContainer second = JSModuleContainer.builder("test").sharedEngine(true).build();
+		assertThat(first.sharesEngineWith(second), equalTo(true));
+		assertThat(first.require("react"), not(sameInstance(second.require("react"))));
+		((JSObject) first.require("react")).setMember("leaked", true);
+		assertThat(((JSObject) second.require("react")).hasMember("leaked"), equalTo(false));
+		assertThat(renderAggregateComponent(second), equalTo(renderAggregateComponent(first)));
+	}
+
+	@Test
+	public void containers_have_their_own_engine_by_default() throws Exception {
+		JSModuleContainer shared = JSModuleContainer.builder("test").sharedEngine(true).build();
+		JSModuleContainer isolated = new JSModuleContainer("test");
+		assertThat(isolated.sharesEngineWith(shared), equalTo(false));
+		assertThat(isolated.sharesEngineWith(new JSModuleContainer("test")), equalTo(false));
+	}
+
+	@Test
+	public void reports_heap_retained_per_container() throws Exception {
+		// warm up shared JVM state, and the shared engine itself, before measuring
+		renderAggregateComponent(JSModuleContainer.builder("test").sharedEngine(true).build());
+
+		HeapAccounting.Retained<List<JSModuleContainer>> isolated = retainedBy(() -> containers(false));
+		HeapAccounting.Retained<List<JSModuleContainer>> shared = retainedBy(() -> containers(true));
+
+		LOG.info("retained per container: isolated engines {}, shared engine {}",
+				megabytes(isolated.bytes / CONTAINERS), megabytes(shared.bytes / CONTAINERS));
+		// heap figures after System.gc() vary too much between JVMs and runs to assert on, so they are only reported
+		assertThat(shared.value.size(), equalTo(CONTAINERS));
+		assertThat(isolated.value.size(), equalTo(CONTAINERS));
+		assertThat(shared.value.get(0).sharesEngineWith(shared.value.get(CONTAINERS - 1)), equalTo(true));
+		assertThat(isolated.value.get(0).sharesEngineWith(isolated.value.get(CONTAINERS - 1)), equalTo(false));
+	}
+
+	private static List<JSModuleContainer> containers(boolean sharedEngine) throws Exception {
+		ImmutableList.Builder<JSModuleContainer> containers = ImmutableList.builder();
+		for (int i = 0; i < CONTAINERS; i++) {
+			JSModuleContainer container = JSModuleContainer.builder("test").sharedEngine(sharedEngine).build();
+			renderAggregateComponent(container);
+			containers.add(container);
+		}
+		return containers.build();
+	}
+}
@@ -0,0 +1,44 @@
+package org.araqnid.testbed.jreact;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+
+import static org.araqnid.testbed.jreact.TestRendering.renderAggregateComponent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class SpawnFromTemplateTest {
+	private static final Logger LOG = LoggerFactory.getLogger(SpawnFromTemplateTest.class);
+
+	@Test
+	public void spawned_container_reuses_template_scripts_without_recompiling() throws Exception {
+		Stopwatch templateTime = Stopwatch.createStarted();
+		JSModuleContainer template = new JSModuleContainer("test");
+		String templateOutput = renderAggregateComponent(template);
+		templateTime.stop();
+		int templateScripts = template.compiledScriptCount();
+
+		Stopwatch freshTime = Stopwatch.createStarted();
+		JSModuleContainer fresh = new JSModuleContainer("test");
+		String freshOutput = renderAggregateComponent(fresh);
+		freshTime.stop();
+
+		Stopwatch spawnedTime = Stopwatch.createStarted();
+		JSModuleContainer spawned = template.spawn();
+		String spawnedOutput = renderAggregateComponent(spawned);
+		spawnedTime.stop();
+
+		LOG.info("container startup: first {}, second from scratch {}, spawned from template {}", templateTime,
+				freshTime, spawnedTime);
+		assertThat(freshOutput, equalTo(templateOutput));
+		assertThat(spawnedOutput, equalTo(templateOutput));
+		assertThat(templateScripts, greaterThan(0));
+		assertThat(fresh.sharesEngineWith(template), equalTo(false));
+		assertThat(spawned.sharesEngineWith(template), equalTo(true));
+		assertThat(spawned.compiledScriptCount(), equalTo(templateScripts));
+	}
+}
@@ -0,0 +1,10 @@
+package org.araqnid.testbed.jreact;
+
+public final class TestRendering {
+	private TestRendering() {
+	}
+
+	public static String renderAggregateComponent(JSModuleContainer container) throws Exception {
+		return container.renderToStaticMarkup("jsx!AggregateComponent", null);
+	}
+}
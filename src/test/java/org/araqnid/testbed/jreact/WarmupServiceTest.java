@@ -0,0 +1,59 @@
+package org.araqnid.testbed.jreact;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class WarmupServiceTest {
+	private final RenderMetrics metrics = new RenderMetrics();
+	private final JSModuleContainerPool pool = new JSModuleContainerPool(() -> JSModuleContainer.builder("test")
+			.metrics(metrics).build(), 2, ImmutableList.of(), 1, TimeUnit.SECONDS);
+
+	@After
+	public void stopPool() {
+		pool.stopAsync().awaitTerminated();
+	}
+
+	@Test
+	public void reads_fixtures_from_json() throws Exception {
+		List<WarmupService.Fixture> fixtures = WarmupService.readFixtures(Resources.getResource("warmup.json"));
+		assertThat(fixtures.size(), equalTo(2));
+		assertThat(fixtures.get(0).moduleName, equalTo("jsx!Component"));
+		assertThat(fixtures.get(0).props, equalTo(ImmutableMap.of("name", "Warmup")));
+		assertThat(fixtures.get(1).props, nullValue());
+	}
+
+	@Test
+	public void primes_every_container_before_running() throws Exception {
+		ClientBundler bundler = new ClientBundler(pool);
+		WarmupService warmup = new WarmupService(pool, metrics, bundler, WarmupService.readFixtures(Resources
+				.getResource("warmup.json")), 10);
+		pool.startAsync();
+		warmup.startAsync().awaitRunning();
+		assertThat(warmup.rounds(), allOf(greaterThanOrEqualTo(1), lessThanOrEqualTo(10)));
+		assertThat(warmup.warmupMillis(), greaterThan(0L));
+		assertThat(pool.available(), equalTo(2));
+		try (JSModuleContainerPool.Lease lease1 = pool.acquire(); JSModuleContainerPool.Lease lease2 = pool.acquire()) {
+			assertThat(lease1.container().isLoaded("jsx!AggregateComponent"), equalTo(true));
+			assertThat(lease2.container().isLoaded("jsx!AggregateComponent"), equalTo(true));
+		}
+		assertThat(metrics.count(RenderMetrics.Operation.RENDER, "jsx!Component"), equalTo(0L));
+		assertThat(metrics.count(RenderMetrics.Operation.MODULE_LOAD, "jsx!Component"), equalTo(2L));
+		assertThat(bundler.prebuilt("jsx!Component").isPresent(), equalTo(true));
+		assertThat(bundler.prebuilt("jsx!AggregateComponent").isPresent(), equalTo(true));
+	}
+}
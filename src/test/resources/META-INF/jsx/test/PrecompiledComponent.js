@@ -0,0 +1,8 @@
+define(['react'], function(React) {
+  var PrecompiledComponent = React.createClass({displayName: "PrecompiledComponent",
+    render: function() {
+      return React.createElement("div", null, "Precompiled content");
+    }
+  });
+  return PrecompiledComponent;
+})
@@ -0,0 +1,14 @@
+define(['react'], function(React) {
+  var renders = 0;
+  var Badge = React.createClass({
+    statics: {
+      cacheable: true,
+      renderCount: function() { return renders; }
+    },
+    render: function() {
+      renders++;
+      return <span className="badge">{ this.props.label }</span>;
+    }
+  });
+  return Badge;
+})
@@ -0,0 +1,12 @@
+define(['react'], function(React) {
+  var LargeList = React.createClass({
+    render: function() {
+      return <ul>
+               { this.props.items.map(function(item) {
+                   return <li key={ item.id }><span className="name">{ item.name }</span> <span className="value">{ item.value }</span></li>;
+                 }) }
+             </ul>;
+    }
+  });
+  return LargeList;
+})
@@ -0,0 +1,8 @@
+define(['react'], function(React) {
+  var PrecompiledComponent = React.createClass({
+    render: function() {
+      return <div>Source content</div>;
+    }
+  });
+  return PrecompiledComponent;
+})
@@ -0,0 +1,12 @@
+define(['react'], function(React) {
+  var Profile = React.createClass({
+    render: function() {
+      return <div>
+               <h1>{ this.props.user.name }</h1>
+               <ul>{ this.props.user.roles.map(function(role) { return <li key={ role }>{ role }</li>; }) }</ul>
+               <p>{ this.props.visits }</p>
+             </div>;
+    }
+  });
+  return Profile;
+})
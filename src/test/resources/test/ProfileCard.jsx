@@ -0,0 +1,17 @@
+define(['react'], function(React) {
+  var renders = 0;
+  var ProfileCard = React.createClass({
+    statics: {
+      cacheable: true,
+      renderCount: function() { return renders; }
+    },
+    render: function() {
+      renders++;
+      return <div className="profile">
+               <h2>{ this.props.user.name }</h2>
+               <ul>{ this.props.user.roles.map(function(role) { return <li key={ role }>{ role }</li>; }) }</ul>
+             </div>;
+    }
+  });
+  return ProfileCard;
+})
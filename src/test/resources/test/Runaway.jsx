@@ -0,0 +1,10 @@
+define(['react'], function(React) {
+  var Runaway = React.createClass({
+    render: function() {
+      while (this.props.spin) {
+      }
+      return <div>finished</div>;
+    }
+  });
+  return Runaway;
+})
@@ -0,0 +1,17 @@
+define(['react', 'jsx!Badge'], function(React, Badge) {
+  var renders = 0;
+  var Tile = React.createClass({
+    statics: {
+      cacheable: true,
+      renderCount: function() { return renders; }
+    },
+    render: function() {
+      renders++;
+      return <div className="tile">
+               <h2>{ this.props.title }</h2>
+               { this.props.badge ? <Badge label={ this.props.badge } /> : null }
+             </div>;
+    }
+  });
+  return Tile;
+})
@@ -0,0 +1,13 @@
+define(['react', 'jsx!Tile'], function(React, Tile) {
+  var TileGrid = React.createClass({
+    render: function() {
+      return <div>
+               <p>Hello { this.props.user }</p>
+               { this.props.products.map(function(product) {
+                   return <Tile key={ product.id } title={ product.title } badge={ product.badge } />;
+                 }) }
+             </div>;
+    }
+  });
+  return TileGrid;
+})
@@ -23,6 +23,13 @@ define(function() {
     },
     logErrorWithObject: function() {
       console.error("logErrorWithObject", { a : 1 }, ["foo", "bar"], function() { return "bleah" });
+    },
+    logDebug: function() {
+      console.debug("logDebug", { a : 1 });
+    },
+    logTime: function() {
+      console.time("logTime");
+      console.timeEnd("logTime");
     }
   };
   return consoleLogger;
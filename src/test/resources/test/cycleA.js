@@ -0,0 +1,3 @@
+define(["cycleB"], function(b) {
+  return "cycleA";
+})
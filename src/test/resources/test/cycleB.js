@@ -0,0 +1,3 @@
+define(["cycleC"], function(c) {
+  return "cycleB";
+})
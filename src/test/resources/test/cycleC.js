@@ -0,0 +1,3 @@
+define(["cycleA"], function(a) {
+  return "cycleC";
+})
@@ -0,0 +1,3 @@
+define(["noDependencies", "emptyDependencies", "singleDependency"], function(nodeps, emptydeps, singledep) {
+  return [nodeps, emptydeps, singledep].join(", ");
+})
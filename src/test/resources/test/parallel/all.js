@@ -0,0 +1,3 @@
+define(["parallel/a", "parallel/b", "parallel/c"], function(a, b, c) {
+  return [a, b, c].join(", ");
+})
@@ -0,0 +1,10 @@
+define(function() {
+  var probe = Java.type("org.araqnid.testbed.jreact.JSModuleContainerTest$EvaluationProbe");
+  probe.enter();
+  try {
+    Java.type("java.lang.Thread").sleep(50);
+  } finally {
+    probe.exit();
+  }
+  return "c";
+})
@@ -0,0 +1,22 @@
+define([], function() {
+  return {
+    spin: function() {
+      var n = 0;
+      while (true) {
+        n++;
+      }
+    },
+    spinSwallowingErrors: function() {
+      var n = 0;
+      while (true) {
+        try {
+          n++;
+        } catch (e) {
+        }
+      }
+    },
+    answer: function() {
+      return 42;
+    }
+  };
+})